@@ -0,0 +1,36 @@
+package com.upgrad.quora.api.config;
+
+import com.upgrad.quora.service.business.UserCommonBusinessService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * This Filter attaches a RequestAuthentication to every request with an authorization header, so that the access token
+ * is resolved at most once per request, whatever the number of services the request goes through.
+ * The controllers get it as the request attribute RequestAuthentication.ATTRIBUTE, which is missing, like the header,
+ * when the request has no authorization header.
+ */
+@Component
+public class AuthenticationFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private UserCommonBusinessService userCommonBusinessService;
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+        final String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null) {
+            request.setAttribute(RequestAuthentication.ATTRIBUTE, new RequestAuthentication(userCommonBusinessService, authorization));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,49 @@
+package com.upgrad.quora.api.config;
+
+import com.upgrad.quora.service.business.UserCommonBusinessService;
+import com.upgrad.quora.service.common.UserPrincipal;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+
+/**
+ * Authentication of one request, installed by the AuthenticationFilter for every request with an authorization header.
+ * The access token is resolved into the principal the first time it is asked for, and the principal, or the reason
+ * why the token was rejected, is kept for the rest of the request.
+ * The token is not resolved for the requests which never ask for the principal, e.g. the sign in with its basic credentials.
+ */
+public class RequestAuthentication {
+
+    public static final String ATTRIBUTE = RequestAuthentication.class.getName();
+
+    private final UserCommonBusinessService userCommonBusinessService;
+
+    private final String accessToken;
+
+    private UserPrincipal principal;
+
+    private AuthorizationFailedException failure;
+
+    RequestAuthentication(final UserCommonBusinessService userCommonBusinessService, final String accessToken) {
+        this.userCommonBusinessService = userCommonBusinessService;
+        this.accessToken = accessToken;
+    }
+
+    /**
+     * method used for getting the signed in user of the request.
+     *
+     * @return signed in user
+     * @throws AuthorizationFailedException if the user has not signed in or has signed out
+     */
+    public UserPrincipal getPrincipal() throws AuthorizationFailedException {
+        if (principal == null && failure == null) {
+            try {
+                principal = userCommonBusinessService.getPrincipal(accessToken);
+            } catch (AuthorizationFailedException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return principal;
+    }
+}
@@ -1,5 +1,6 @@
 package com.upgrad.quora.api.controller;/* Create by Amit Punia */
 
+import com.upgrad.quora.api.config.RequestAuthentication;
 import com.upgrad.quora.service.business.AdminBusinessService;
 import com.upgrad.quora.service.exception.AuthenticationFailedException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
@@ -18,10 +19,9 @@ public class AdminController {
     private AdminBusinessService adminBusinessService;
 
     @RequestMapping(method = RequestMethod.DELETE , path = "/admin/user/{userId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<com.upgrad.quora.api.model.UserDeleteResponse> deleteUser(@PathVariable("userId") final String userid, @RequestHeader("authorization")
-    final String authorization) throws AuthenticationFailedException, AuthorizationFailedException, UserNotFoundException {
+    public ResponseEntity<com.upgrad.quora.api.model.UserDeleteResponse> deleteUser(@PathVariable("userId") final String userid, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication) throws AuthenticationFailedException, AuthorizationFailedException, UserNotFoundException {
 
-        String uuid = adminBusinessService.deleteUser(userid ,authorization);
+        String uuid = adminBusinessService.deleteUser(userid ,authentication.getPrincipal());
         com.upgrad.quora.api.model.UserDeleteResponse userDeleteResponse=new com.upgrad.quora.api.model.UserDeleteResponse().id(uuid).status("USER SUCCESSFULLY DELETED");
         return new ResponseEntity<com.upgrad.quora.api.model.UserDeleteResponse>(userDeleteResponse, HttpStatus.OK);
     }
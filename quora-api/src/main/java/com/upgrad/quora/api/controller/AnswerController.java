@@ -1,21 +1,26 @@
 package com.upgrad.quora.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.api.config.RequestAuthentication;
 import com.upgrad.quora.api.model.*;
 import com.upgrad.quora.service.business.AnswerService;
 import com.upgrad.quora.service.business.QuestionService;
-import com.upgrad.quora.service.business.UserCommonBusinessService;
 import com.upgrad.quora.service.entity.Answer;
 import com.upgrad.quora.service.entity.Question;
-import com.upgrad.quora.service.entity.UserAuthEntity;
 import com.upgrad.quora.service.exception.AnswerNotFoundException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.EditConflictException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
 import com.upgrad.quora.service.common.ActionType;
+import com.upgrad.quora.service.common.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.ZonedDateTime;
 import java.util.List;
@@ -36,23 +41,23 @@ public class AnswerController {
     QuestionService questionService;
 
     @Autowired
-    UserCommonBusinessService userCommonBusinessService;
+    ObjectMapper objectMapper;
 
 
     /**
      * @param answerRequest
      * @param questionUuId
-     * @param authorization
+     * @param authentication
      * @return
      * @throws AuthorizationFailedException
      * @throws InvalidQuestionException
      */
     @RequestMapping(method = RequestMethod.POST, path = "/question/{questionId}/answer/create", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<?> createAnswer(final AnswerRequest answerRequest, @PathVariable("questionId") final String questionUuId, @RequestHeader final String authorization) throws AuthorizationFailedException, InvalidQuestionException {
+    public ResponseEntity<?> createAnswer(final AnswerRequest answerRequest, @PathVariable("questionId") final String questionUuId, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication) throws AuthorizationFailedException, InvalidQuestionException {
         //Authorize the user
-        UserAuthEntity authorizedUser;
+        UserPrincipal principal;
         try {
-            authorizedUser = userCommonBusinessService.getUserByAccessToken(authorization);
+            principal = authentication.getPrincipal();
         }catch(AuthorizationFailedException authFE){
             ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
@@ -74,7 +79,7 @@ public class AnswerController {
         answer.setQuestion(question);
         answer.setAnswer(answerRequest.getAnswer());
         answer.setUuid(UUID.randomUUID().toString());
-        answer.setUser(authorizedUser.getUser_id());
+        answer.setUser(principal.toUser());
         ZonedDateTime now = ZonedDateTime.now();
         answer.setDate(now);
         //Send the answer object from creation in database
@@ -88,17 +93,17 @@ public class AnswerController {
     /**
      * @param answerEditRequest
      * @param answerUuId
-     * @param authorization
+     * @param authentication
      * @return
      * @throws AuthorizationFailedException
      * @throws AnswerNotFoundException
      */
     @RequestMapping(method = RequestMethod.PUT, path = "/answer/edit/{answerId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE, consumes = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<?> editAnswerContent(AnswerEditRequest answerEditRequest, @PathVariable("answerId") final String answerUuId, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, AnswerNotFoundException {
+    public ResponseEntity<?> editAnswerContent(AnswerEditRequest answerEditRequest, @PathVariable("answerId") final String answerUuId, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication) throws AuthorizationFailedException, AnswerNotFoundException {
         //Authorize the user if he has signed in properly
-        UserAuthEntity authorizedUser;
+        UserPrincipal principal;
         try {
-            authorizedUser = userCommonBusinessService.getUserByAccessToken(authorization);
+            principal = authentication.getPrincipal();
         }catch(AuthorizationFailedException authFE){
             ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
@@ -107,7 +112,7 @@ public class AnswerController {
         //get the answer Object after checking if user if owner of the answer
         Answer answer;
         try {
-            answer = answerService.isUserAnswerOwner(answerUuId, authorizedUser, ActionType.EDIT_ANSWER);
+            answer = answerService.isUserAnswerOwner(answerUuId, principal, ActionType.EDIT_ANSWER);
         }catch(AuthorizationFailedException authFE){
             ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
@@ -118,7 +123,12 @@ public class AnswerController {
         //set the details that needs to updated in database
         answer.setAnswer(answerEditRequest.getContent());
         answer.setDate(ZonedDateTime.now());
-        Answer editedAnswer = answerService.editAnswer(answer);
+        try {
+            answerService.editAnswer(answer);
+        }catch(EditConflictException conflictE){
+            ErrorResponse errorResponse = new ErrorResponse().message(conflictE.getErrorMessage()).code(conflictE.getCode()).rootCause(conflictE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.CONFLICT);
+        }
         AnswerEditResponse answerEditResponse = new AnswerEditResponse()
                 .id(answerUuId)
                 .status("ANSWER EDITED");
@@ -127,11 +137,11 @@ public class AnswerController {
 
 
     @RequestMapping(method = RequestMethod.DELETE, path = "/answer/delete/{answerId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<?> deleteAnswer(@PathVariable("answerId") final String answerUuId, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, AnswerNotFoundException {
+    public ResponseEntity<?> deleteAnswer(@PathVariable("answerId") final String answerUuId, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication) throws AuthorizationFailedException, AnswerNotFoundException {
         //Authorize the user if he has signed in properly
-        UserAuthEntity authorizedUser;
+        UserPrincipal principal;
         try {
-            authorizedUser = userCommonBusinessService.getUserByAccessToken(authorization);
+            principal = authentication.getPrincipal();
         }catch(AuthorizationFailedException authFE){
             ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
@@ -139,7 +149,7 @@ public class AnswerController {
         //Check if the user is himself or an admin trying to delete the answer
         Answer answer;
         try {
-            answer = answerService.isUserAnswerOwner(answerUuId, authorizedUser, ActionType.DELETE_ANSWER);
+            answer = answerService.isUserAnswerOwner(answerUuId, principal, ActionType.DELETE_ANSWER);
         }catch(AuthorizationFailedException authFE){
             ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
@@ -155,16 +165,41 @@ public class AnswerController {
     }
 
 
+    /**
+     * Rest Endpoint method implementation used for getting all the answers to a question.
+     * The response carries the entity tag of the question and its answers, and a client sending back the current tag
+     * in If-None-Match is answered with not modified without the answers being read.
+     *
+     * @param questionId     uuid of the question
+     * @param authentication authorized user
+     * @param ifNoneMatch    entity tag returned with the copy of the answers held by the client, if any
+     * @return ResponseEntity object with the answers, or not modified if the copy of the client is current
+     * @throws AuthorizationFailedException if user is not signed then this exception is thrown
+     * @throws InvalidQuestionException     if the question does not exist
+     * @throws AnswerNotFoundException      if the answers can not be read
+     */
     @RequestMapping(method = RequestMethod.GET, path = "/answer/all/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<?> getAllAnswersToQuestion(@PathVariable("questionId") final String questionId, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, InvalidQuestionException, AnswerNotFoundException {
+    public ResponseEntity<?> getAllAnswersToQuestion(@PathVariable("questionId") final String questionId, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) throws AuthorizationFailedException, InvalidQuestionException, AnswerNotFoundException {
         //Authorize the user if he has signed in properly
-        UserAuthEntity authorizedUser;
+        UserPrincipal principal;
         try {
-            authorizedUser = userCommonBusinessService.getUserByAccessToken(authorization);
+            principal = authentication.getPrincipal();
         }catch(AuthorizationFailedException authFE){
             ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
         }
+        //the versions are read before the answers, so that the answers returned are never older than their tag
+        String eTag;
+        try {
+            eTag = QuestionETags.of(questionService.getQuestionVersion(questionId));
+        }catch(InvalidQuestionException iQE) {
+            ErrorResponse errorResponse = new ErrorResponse().message(iQE.getErrorMessage()).code(iQE.getCode()).rootCause(iQE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.NOT_FOUND);
+        }
+        if (QuestionETags.matches(ifNoneMatch, eTag)) {
+            return new ResponseEntity<>(QuestionETags.headers(eTag), HttpStatus.NOT_MODIFIED);
+        }
         List<Answer> answerList;
         try {
             answerList = answerService.getAnswersForQuestion(questionId);
@@ -183,7 +218,41 @@ public class AnswerController {
                 .id(uuIdBuilder.toString())
                 .answerContent(contentBuilder.toString())
                 .questionContent(questionContentValue);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return new ResponseEntity<>(response, QuestionETags.headers(eTag), HttpStatus.OK);
+    }
+
+    /**
+     * Rest Endpoint method implementation used for exporting all the answers to a question as a JSON array.
+     * Only logged in user is allowed to export the answers.
+     * The answers are written to the response while they are read from the database,
+     * so the memory used by the request does not grow with the number of answers.
+     *
+     * @param questionId     uuid of the question
+     * @param authentication authorized user
+     * @return ResponseEntity object with the streamed JSON array of answers
+     * @throws AuthorizationFailedException if user is not signed then this exception is thrown
+     * @throws InvalidQuestionException     if the question does not exist
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/answer/export/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllAnswersToQuestion(@PathVariable("questionId") final String questionId, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication) throws AuthorizationFailedException, InvalidQuestionException {
+        //errors are reported by the RestExceptionHandler, as this endpoint only returns streamed bodies
+        authentication.getPrincipal();
+        //The question is checked before the response is started, so that a missing question is still reported with an error response
+        final Question question = answerService.getQuestionForAnswers(questionId);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                answerService.exportAnswersForQuestion(question, answer -> {
+                    generator.writeStartObject();
+                    generator.writeStringField("id", answer.getUuid());
+                    generator.writeStringField("answerContent", answer.getAnswer());
+                    generator.writeStringField("questionContent", answer.getQuestionContent());
+                    generator.writeEndObject();
+                });
+                generator.writeEndArray();
+            }
+        };
+        return new ResponseEntity<StreamingResponseBody>(body, HttpStatus.OK);
     }
 
     /**
@@ -1,10 +1,11 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.config.RequestAuthentication;
 import com.upgrad.quora.api.model.UserDetailsResponse;
 import com.upgrad.quora.service.business.UserCommonBusinessService;
-import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.projection.UserProfile;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -19,12 +20,14 @@ public class CommonController {
     private UserCommonBusinessService UserCommonBusinessService;
 
     @RequestMapping(method = RequestMethod.GET, path = "/userprofile/{userId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<UserDetailsResponse> getUserProfileById(@PathVariable("userId") final String userUuid, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, UserNotFoundException {
-        final UserEntity userEntity= (UserEntity) UserCommonBusinessService.getUser(userUuid,authorization);
-        UserDetailsResponse userDetailsResponse=new UserDetailsResponse().firstName(userEntity.getFirstName())
-                .lastName(userEntity.getLastName()).userName(userEntity.getUsername())
-                .emailAddress(userEntity.getEmail()).contactNumber(userEntity.getContactNumber())
-                .dob(userEntity.getDob()).country(userEntity.getCountry()).aboutMe(userEntity.getAboutme());
+    public ResponseEntity<UserDetailsResponse> getUserProfileById(@PathVariable("userId") final String userUuid, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication) throws AuthorizationFailedException, UserNotFoundException {
+        //only a signed in user may read the profiles, the profile read is the same whoever reads it
+        authentication.getPrincipal();
+        final UserProfile userProfile = UserCommonBusinessService.getUserProfile(userUuid);
+        UserDetailsResponse userDetailsResponse=new UserDetailsResponse().firstName(userProfile.getFirstName())
+                .lastName(userProfile.getLastName()).userName(userProfile.getUserName())
+                .emailAddress(userProfile.getEmail()).contactNumber(userProfile.getContactNumber())
+                .dob(userProfile.getDob()).country(userProfile.getCountry()).aboutMe(userProfile.getAboutMe());
         return new ResponseEntity<UserDetailsResponse>(userDetailsResponse, HttpStatus.OK);
 
 
@@ -1,24 +1,50 @@
 package com.upgrad.quora.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.api.config.RequestAuthentication;
 import com.upgrad.quora.api.model.*;
+import com.upgrad.quora.service.business.ContentImportService;
 import com.upgrad.quora.service.business.QuestionService;
-import com.upgrad.quora.service.business.UserCommonBusinessService;
 import com.upgrad.quora.service.entity.Question;
-import com.upgrad.quora.service.entity.UserAuthEntity;
 import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.ImportItem;
+import com.upgrad.quora.service.common.ImportResult;
+import com.upgrad.quora.service.common.Page;
+import com.upgrad.quora.service.projection.AnswerDetail;
+import com.upgrad.quora.service.projection.QuestionDetail;
+import com.upgrad.quora.service.projection.QuestionSearchHit;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.EditConflictException;
+import com.upgrad.quora.service.exception.InvalidCursorException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
-import com.upgrad.quora.service.exception.QuestionNotFoundException;
+import com.upgrad.quora.service.exception.InvalidSearchException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
 import com.upgrad.quora.service.common.ActionType;
+import com.upgrad.quora.service.common.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,33 +55,42 @@ import java.util.UUID;
 @RequestMapping("/")
 public class QuestionController {
 
-    @Autowired
-    UserCommonBusinessService userCommonBusinessService;
+    private static final Logger LOG = LoggerFactory.getLogger(QuestionController.class);
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
 
     @Autowired
     QuestionService questionService;
 
+    @Autowired
+    ContentImportService contentImportService;
+
+    @Value("${quora.import.chunk-size:500}")
+    private int importChunkSize;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     /**
      * Rest Endpoint method implementation used for creating question for authorized user.
      * Only logged-in user is allowed to create a question.
      *
      * @param questionRequest request object of question instance
-     * @param authorization   access token of user
+     * @param authentication  access token of user
      * @return ResponseEntity object with response details of question
      * @throws AuthorizationFailedException if user is not signed then this exception is thrown
      */
     @RequestMapping(method = RequestMethod.POST, path = "/question/create", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<?> createQuestion(final QuestionRequest questionRequest, @RequestHeader final String authorization) throws AuthorizationFailedException {
-        UserAuthEntity authorizedUser;
+    public ResponseEntity<?> createQuestion(final QuestionRequest questionRequest, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication) throws AuthorizationFailedException {
+        UserPrincipal principal;
         try {
-            authorizedUser = userCommonBusinessService.getUserByAccessToken(authorization);
+            principal = authentication.getPrincipal();
         }catch(AuthorizationFailedException authFE){
             ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
         }
-        UserEntity user = authorizedUser.getUser_id();
         Question question = new Question();
-        question.setUser(authorizedUser.getUser_id());
+        question.setUser(principal.toUser());
         question.setUuid(UUID.randomUUID().toString());
         question.setContent(questionRequest.getContent());
         final ZonedDateTime now = ZonedDateTime.now();
@@ -68,39 +103,281 @@ public class QuestionController {
     /**
      * Rest Endpoint method implementation used for getting all questions for authorized user.
      * Only logged in user is allowed to get the details.
+     * The questions are returned newest first, one page at a time.
      *
-     * @param authorization authorized user
+     * @param authentication authorized user
+     * @param limit          maximum number of questions in the page
+     * @param cursor         cursor of the page, as returned with the previous page
      * @return ResponseEntity object with response details of question
      * @throws AuthorizationFailedException if user is not signed then this exception is thrown
-     * @throws QuestionNotFoundException    thrown if there are o questions for the user
      */
     @RequestMapping(method = RequestMethod.GET, path = "/question/all", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<?> getAllQuestions(@RequestHeader final String authorization) throws AuthorizationFailedException, QuestionNotFoundException {
+    public ResponseEntity<?> getAllQuestions(@RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication,
+                                             @RequestParam(value = "limit", required = false) final Integer limit,
+                                             @RequestParam(value = "cursor", required = false) final String cursor) throws AuthorizationFailedException {
         try {
-            UserAuthEntity authorizedUser = userCommonBusinessService.getUserByAccessToken(authorization);
+            authentication.getPrincipal();
         }catch(AuthorizationFailedException authFE){
             ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
         }
         //Since the user is authorized, go for extracting questions for all users
-        List<Question> questionList;
+        Page<Question> questionPage;
         try {
-            questionList = questionService.getAllQuestions();
-        }catch(QuestionNotFoundException quesFE ){
-            ErrorResponse errorResponse = new ErrorResponse().message(quesFE.getErrorMessage()).code(quesFE.getCode()).rootCause(quesFE.getMessage());
-            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.UNAUTHORIZED);
+            questionPage = questionService.getAllQuestions(limit, cursor);
+        }catch(InvalidCursorException cursorE){
+            ErrorResponse errorResponse = new ErrorResponse().message(cursorE.getErrorMessage()).code(cursorE.getCode()).rootCause(cursorE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
         }
 
         StringBuilder builder = new StringBuilder();
-        getContentsString(questionList, builder);
+        getContentsString(questionPage.getItems(), builder);
         StringBuilder uuIdBuilder = new StringBuilder();
-        getUuIdString(questionList, uuIdBuilder);
+        getUuIdString(questionPage.getItems(), uuIdBuilder);
         QuestionDetailsResponse questionResponse = new QuestionDetailsResponse()
                 .id(uuIdBuilder.toString())
-                .content(builder.toString());
+                .content(builder.toString())
+                .nextCursor(questionPage.getNextCursor());
         return new ResponseEntity<QuestionDetailsResponse>(questionResponse, HttpStatus.OK);
     }
 
+    /**
+     * Rest Endpoint method implementation used for getting all questions with their answer counts, most answered first.
+     * Only logged in user is allowed to get the details.
+     *
+     * @param authentication authorized user
+     * @param limit          maximum number of questions in the page
+     * @param cursor         cursor of the page, as returned with the previous page
+     * @return ResponseEntity object with the questions of the page
+     * @throws AuthorizationFailedException if user is not signed then this exception is thrown
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/most-answered", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<?> getMostAnsweredQuestions(@RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication,
+                                                      @RequestParam(value = "limit", required = false) final Integer limit,
+                                                      @RequestParam(value = "cursor", required = false) final String cursor) throws AuthorizationFailedException {
+        try {
+            authentication.getPrincipal();
+        }catch(AuthorizationFailedException authFE){
+            ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
+        }
+        Page<Question> questionPage;
+        try {
+            questionPage = questionService.getMostAnsweredQuestions(limit, cursor);
+        }catch(InvalidCursorException cursorE){
+            ErrorResponse errorResponse = new ErrorResponse().message(cursorE.getErrorMessage()).code(cursorE.getCode()).rootCause(cursorE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<QuestionActivityResponse>(toActivityResponse(questionPage), HttpStatus.OK);
+    }
+
+    /**
+     * Rest Endpoint method implementation used for getting the answered questions with their answer counts, most recently answered first.
+     * Only logged in user is allowed to get the details.
+     *
+     * @param authentication authorized user
+     * @param limit          maximum number of questions in the page
+     * @param cursor         cursor of the page, as returned with the previous page
+     * @return ResponseEntity object with the questions of the page
+     * @throws AuthorizationFailedException if user is not signed then this exception is thrown
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/recently-active", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<?> getRecentlyActiveQuestions(@RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication,
+                                                        @RequestParam(value = "limit", required = false) final Integer limit,
+                                                        @RequestParam(value = "cursor", required = false) final String cursor) throws AuthorizationFailedException {
+        try {
+            authentication.getPrincipal();
+        }catch(AuthorizationFailedException authFE){
+            ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
+        }
+        Page<Question> questionPage;
+        try {
+            questionPage = questionService.getRecentlyActiveQuestions(limit, cursor);
+        }catch(InvalidCursorException cursorE){
+            ErrorResponse errorResponse = new ErrorResponse().message(cursorE.getErrorMessage()).code(cursorE.getCode()).rootCause(cursorE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<QuestionActivityResponse>(toActivityResponse(questionPage), HttpStatus.OK);
+    }
+
+    /**
+     * Rest Endpoint method implementation used for searching the questions by the words of their content or of their answers.
+     * Only logged in user is allowed to search the questions.
+     * The questions are returned best match first, one page at a time.
+     *
+     * @param authentication authorized user
+     * @param query          words to search for
+     * @param limit          maximum number of questions in the page
+     * @param cursor         cursor of the page, as returned with the previous page
+     * @return ResponseEntity object with the matching questions
+     * @throws AuthorizationFailedException if user is not signed then this exception is thrown
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/search", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<?> searchQuestions(@RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication,
+                                             @RequestParam(value = "query") final String query,
+                                             @RequestParam(value = "limit", required = false) final Integer limit,
+                                             @RequestParam(value = "cursor", required = false) final String cursor) throws AuthorizationFailedException {
+        try {
+            authentication.getPrincipal();
+        }catch(AuthorizationFailedException authFE){
+            ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
+        }
+        Page<QuestionSearchHit> hitPage;
+        try {
+            hitPage = questionService.searchQuestions(query, limit, cursor);
+        }catch(InvalidSearchException searchE){
+            ErrorResponse errorResponse = new ErrorResponse().message(searchE.getErrorMessage()).code(searchE.getCode()).rootCause(searchE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
+        }catch(InvalidCursorException cursorE){
+            ErrorResponse errorResponse = new ErrorResponse().message(cursorE.getErrorMessage()).code(cursorE.getCode()).rootCause(cursorE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
+        }
+
+        QuestionSearchResponse searchResponse = new QuestionSearchResponse().nextCursor(hitPage.getNextCursor());
+        for (QuestionSearchHit hit : hitPage.getItems()) {
+            searchResponse.addQuestionsItem(new QuestionSearchResult().id(hit.getUuid()).content(hit.getContent()));
+        }
+        return new ResponseEntity<QuestionSearchResponse>(searchResponse, HttpStatus.OK);
+    }
+
+    /**
+     * Rest Endpoint method implementation used for suggesting questions while the user types a question or a search.
+     * Only logged in user is allowed to get the suggestions.
+     * The questions containing the words typed so far, the last one possibly incomplete, are returned newest first.
+     *
+     * @param authentication authorized user
+     * @param query          text typed so far
+     * @param limit          maximum number of suggested questions
+     * @return ResponseEntity object with the suggested questions
+     * @throws AuthorizationFailedException if user is not signed then this exception is thrown
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/typeahead", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<?> typeahead(@RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication,
+                                       @RequestParam(value = "query") final String query,
+                                       @RequestParam(value = "limit", required = false) final Integer limit) throws AuthorizationFailedException {
+        try {
+            authentication.getPrincipal();
+        }catch(AuthorizationFailedException authFE){
+            ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
+        }
+
+        QuestionSearchResponse suggestionResponse = new QuestionSearchResponse().questions(new ArrayList<>());
+        for (QuestionSearchHit suggestion : questionService.typeahead(query, limit)) {
+            suggestionResponse.addQuestionsItem(new QuestionSearchResult().id(suggestion.getUuid()).content(suggestion.getContent()));
+        }
+        return new ResponseEntity<QuestionSearchResponse>(suggestionResponse, HttpStatus.OK);
+    }
+
+
+    /**
+     * Rest Endpoint method implementation used for exporting all questions as a JSON array, newest first.
+     * Only logged in user is allowed to export the questions.
+     * The questions are written to the response while they are read from the database,
+     * so the memory used by the request does not grow with the number of questions.
+     *
+     * @param authentication authorized user
+     * @return ResponseEntity object with the streamed JSON array of questions
+     * @throws AuthorizationFailedException if user is not signed then this exception is thrown
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/export", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllQuestions(@RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication) throws AuthorizationFailedException {
+        //errors are reported by the RestExceptionHandler, as this endpoint only returns streamed bodies
+        authentication.getPrincipal();
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                questionService.exportQuestions(question -> {
+                    generator.writeStartObject();
+                    generator.writeStringField("id", question.getUuid());
+                    generator.writeStringField("content", question.getContent());
+                    generator.writeEndObject();
+                });
+                generator.writeEndArray();
+            }
+        };
+        return new ResponseEntity<StreamingResponseBody>(body, HttpStatus.OK);
+    }
+
+    /**
+     * Rest Endpoint method implementation used for importing questions and answers in bulk, e.g. when migrating another forum.
+     * The request body has one JSON item per line, either a new question with its answers or answers to an existing question.
+     * The user is authorized once for the whole request, the items are imported in chunked transactions
+     * and the result of every item is streamed back as one JSON line once its chunk is done.
+     *
+     * @param body           newline delimited JSON items
+     * @param authentication access token of the user importing the items
+     * @return ResponseEntity object with the streamed results, one JSON line per item
+     * @throws AuthorizationFailedException if user is not signed then this exception is thrown
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/question/import", consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importQuestions(final InputStream body, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication) throws AuthorizationFailedException {
+        //errors are reported as JSON by the RestExceptionHandler, hence the content type of the results is only set on the streamed response
+        final UserEntity user = authentication.getPrincipal().toUser();
+        StreamingResponseBody results = outputStream -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            List<ImportItem> chunk = new ArrayList<>(importChunkSize);
+            List<ImportResult> rejectedLines = new ArrayList<>();
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    QuestionImportItem item = objectMapper.readValue(line, QuestionImportItem.class);
+                    chunk.add(new ImportItem(lineNumber, item.getQuestionId(), item.getContent(), item.getAnswers()));
+                } catch (JsonProcessingException e) {
+                    rejectedLines.add(ImportResult.rejected(lineNumber, "IMP-001", "The line is not a valid JSON item"));
+                }
+                if (chunk.size() == importChunkSize) {
+                    writeImportResults(outputStream, importChunk(user, chunk), rejectedLines);
+                    chunk.clear();
+                    rejectedLines.clear();
+                }
+            }
+            writeImportResults(outputStream, importChunk(user, chunk), rejectedLines);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(results);
+    }
+
+    private List<ImportResult> importChunk(final UserEntity user, final List<ImportItem> chunk) {
+        if (chunk.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return contentImportService.importChunk(user, chunk);
+        } catch (RuntimeException e) {
+            //the whole chunk has been rolled back, the following chunks are still imported
+            LOG.error("Import of the lines {} to {} failed", chunk.get(0).getLine(), chunk.get(chunk.size() - 1).getLine(), e);
+            List<ImportResult> failures = new ArrayList<>(chunk.size());
+            for (ImportItem item : chunk) {
+                failures.add(ImportResult.failed(item.getLine(), GenericErrorCode.GEN_001.getCode(), GenericErrorCode.GEN_001.getDefaultMessage()));
+            }
+            return failures;
+        }
+    }
+
+    private void writeImportResults(final OutputStream outputStream, final List<ImportResult> importResults, final List<ImportResult> rejectedLines) throws IOException {
+        List<ImportResult> lines = new ArrayList<>(importResults);
+        lines.addAll(rejectedLines);
+        lines.sort(Comparator.comparingInt(ImportResult::getLine));
+        for (ImportResult result : lines) {
+            QuestionImportResult importResult = new QuestionImportResult()
+                    .line(result.getLine())
+                    .status(result.getStatus())
+                    .questionId(result.getQuestionUuid())
+                    .answerIds(result.getAnswerUuids())
+                    .code(result.getCode())
+                    .message(result.getMessage());
+            outputStream.write(objectMapper.writeValueAsBytes(importResult));
+            outputStream.write('\n');
+        }
+        outputStream.flush();
+    }
 
     /**
      * Rest Endpoint method implementation used for getting all questions for any user.
@@ -108,17 +385,17 @@ public class QuestionController {
      *
      * @param questionEditRequest request for question to be edited
      * @param questionId          question to be edited
-     * @param authorization       Authorized user
+     * @param authentication      Authorized user
      * @return Response Entity of type QuestionEditResponse
      * @throws AuthorizationFailedException if user is not signed then this exception is thrown
      * @throws InvalidQuestionException     if question does not exist
      */
     @RequestMapping(method = RequestMethod.PUT, path = "/question/edit/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE, consumes = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<?> editQuestionContent(QuestionEditRequest questionEditRequest, @PathVariable("questionId") final String questionId, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, InvalidQuestionException {
+    public ResponseEntity<?> editQuestionContent(QuestionEditRequest questionEditRequest, @PathVariable("questionId") final String questionId, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication) throws AuthorizationFailedException, InvalidQuestionException {
 
-        UserAuthEntity authorizedUser;
+        UserPrincipal principal;
         try {
-            authorizedUser = userCommonBusinessService.getUserByAccessToken(authorization);
+            principal = authentication.getPrincipal();
         }catch(AuthorizationFailedException authFE){
             ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
@@ -126,7 +403,7 @@ public class QuestionController {
         //Check if the user himself is the owner and trying to edit it and return the question object
         Question question;
         try {
-            question = questionService.isUserQuestionOwner(questionId, authorizedUser, ActionType.EDIT_QUESTION);
+            question = questionService.isUserQuestionOwner(questionId, principal, ActionType.EDIT_QUESTION);
         }catch(InvalidQuestionException iQE){
             ErrorResponse errorResponse = new ErrorResponse().message(iQE.getErrorMessage()).code(iQE.getCode()).rootCause(iQE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.NOT_FOUND);
@@ -135,7 +412,12 @@ public class QuestionController {
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
         }
         question.setContent(questionEditRequest.getContent());
-        questionService.editQuestion(question);
+        try {
+            questionService.editQuestion(question);
+        }catch(EditConflictException conflictE){
+            ErrorResponse errorResponse = new ErrorResponse().message(conflictE.getErrorMessage()).code(conflictE.getCode()).rootCause(conflictE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.CONFLICT);
+        }
         QuestionEditResponse questionEditResponse = new QuestionEditResponse().id(question.getUuid()).status("QUESTION EDITED");
         return new ResponseEntity<QuestionEditResponse>(questionEditResponse, HttpStatus.OK);
     }
@@ -145,18 +427,18 @@ public class QuestionController {
      * Rest Endpoint method implementation used for deleting question by question id.
      * Only logged-in user who is owner of the question or admin is allowed to delete a question
      *
-     * @param questionUuId  questionid to be deleted
-     * @param authorization user to be authorized
+     * @param questionUuId   questionid to be deleted
+     * @param authentication user to be authorized
      * @return ResponseEnitty object of type QuestionDeleteResponse
      * @throws AuthorizationFailedException if user is not signed then this exception is thrown
      * @throws InvalidQuestionException     if question does not exist
      */
     @RequestMapping(method = RequestMethod.DELETE, path = "/question/delete/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<?> userDelete(@PathVariable("questionId") final String questionUuId, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, InvalidQuestionException {
+    public ResponseEntity<?> userDelete(@PathVariable("questionId") final String questionUuId, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication) throws AuthorizationFailedException, InvalidQuestionException {
 
-        UserAuthEntity authorizedUser;
+        UserPrincipal principal;
         try {
-            authorizedUser = userCommonBusinessService.getUserByAccessToken(authorization);
+            principal = authentication.getPrincipal();
         }catch(AuthorizationFailedException authFE){
             ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
@@ -164,7 +446,7 @@ public class QuestionController {
         //Check if the user himself is the owner and trying to edit it and return the question object
         Question question;
         try {
-            question = questionService.isUserQuestionOwner(questionUuId, authorizedUser, ActionType.DELETE_QUESTION);
+            question = questionService.isUserQuestionOwner(questionUuId, principal, ActionType.DELETE_QUESTION);
         }catch(InvalidQuestionException iQE){
             ErrorResponse errorResponse = new ErrorResponse().message(iQE.getErrorMessage()).code(iQE.getCode()).rootCause(iQE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.NOT_FOUND);
@@ -182,36 +464,107 @@ public class QuestionController {
     //getAllQuestionsByUser
 
     @RequestMapping(method = RequestMethod.GET, path = "/question/all/{userId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<?> getAllQuestionsByUser(@PathVariable("userId") final String uuId, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, QuestionNotFoundException, UserNotFoundException {
-        UserAuthEntity authorizedUser;
+    public ResponseEntity<?> getAllQuestionsByUser(@PathVariable("userId") final String uuId, @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication,
+                                                   @RequestParam(value = "limit", required = false) final Integer limit,
+                                                   @RequestParam(value = "cursor", required = false) final String cursor) throws AuthorizationFailedException, UserNotFoundException {
+        UserPrincipal principal;
         try {
-            authorizedUser = userCommonBusinessService.getUserByAccessToken(authorization);
+            principal = authentication.getPrincipal();
         }catch(AuthorizationFailedException authFE){
             ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
         }
-        //Get the list of questions for the user
-        List<Question> questionList;
+        //Get the page of questions for the user
+        Page<Question> questionPage;
         try {
-            questionList = questionService.getQuestionsForUser(uuId);
+            questionPage = questionService.getQuestionsForUser(uuId, limit, cursor);
         }catch(UserNotFoundException userNFE){
             ErrorResponse errorResponse = new ErrorResponse().message(userNFE.getErrorMessage()).code(userNFE.getCode()).rootCause(userNFE.getMessage());
             return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.NOT_FOUND);
-        }catch(QuestionNotFoundException quesNFE){
-            ErrorResponse errorResponse = new ErrorResponse().message(quesNFE.getErrorMessage()).code(quesNFE.getCode()).rootCause(quesNFE.getMessage());
-            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.NOT_FOUND);
+        }catch(InvalidCursorException cursorE){
+            ErrorResponse errorResponse = new ErrorResponse().message(cursorE.getErrorMessage()).code(cursorE.getCode()).rootCause(cursorE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
         }
         StringBuilder contentBuilder = new StringBuilder();
         StringBuilder uuIdBuilder = new StringBuilder();
-        getContentsString(questionList, contentBuilder);
-        getUuIdString(questionList, uuIdBuilder);
+        getContentsString(questionPage.getItems(), contentBuilder);
+        getUuIdString(questionPage.getItems(), uuIdBuilder);
         QuestionDetailsResponse questionResponse = new QuestionDetailsResponse()
                 .id(uuIdBuilder.toString())
-                .content(contentBuilder.toString());
+                .content(contentBuilder.toString())
+                .nextCursor(questionPage.getNextCursor());
         return new ResponseEntity<QuestionDetailsResponse>(questionResponse, HttpStatus.OK);
     }
 
 
+    /**
+     * Rest Endpoint method implementation used for getting a question with its author and its answers with their authors.
+     * Only logged in user is allowed to get the details.
+     * The answers are returned oldest first, one page at a time, and the question is returned with every page.
+     *
+     * @param questionId     uuid of the question
+     * @param authentication authorized user
+     * @param limit          maximum number of answers in the page
+     * @param cursor         cursor of the page, as returned with the previous page
+     * @param ifNoneMatch    entity tag returned with the copy of the question held by the client, if any
+     * @return ResponseEntity object with the question and the answers of the page, or not modified if the copy of the client is current
+     * @throws AuthorizationFailedException if user is not signed then this exception is thrown
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<?> getQuestionDetail(@PathVariable("questionId") final String questionId,
+                                               @RequestAttribute(RequestAuthentication.ATTRIBUTE) final RequestAuthentication authentication,
+                                               @RequestParam(value = "limit", required = false) final Integer limit,
+                                               @RequestParam(value = "cursor", required = false) final String cursor,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) throws AuthorizationFailedException {
+        try {
+            authentication.getPrincipal();
+        }catch(AuthorizationFailedException authFE){
+            ErrorResponse errorResponse = new ErrorResponse().message(authFE.getErrorMessage()).code(authFE.getCode()).rootCause(authFE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.FORBIDDEN);
+        }
+        //a client holding a copy of the question is answered from the versions of the question, without reading its answers
+        if (ifNoneMatch != null) {
+            String currentETag;
+            try {
+                currentETag = QuestionETags.of(questionService.getQuestionVersion(questionId));
+            }catch(InvalidQuestionException iQE){
+                ErrorResponse errorResponse = new ErrorResponse().message(iQE.getErrorMessage()).code(iQE.getCode()).rootCause(iQE.getMessage());
+                return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.NOT_FOUND);
+            }
+            if (QuestionETags.matches(ifNoneMatch, currentETag)) {
+                return new ResponseEntity<>(QuestionETags.headers(currentETag), HttpStatus.NOT_MODIFIED);
+            }
+        }
+        QuestionDetail questionDetail;
+        try {
+            questionDetail = questionService.getQuestionDetail(questionId, limit, cursor);
+        }catch(InvalidQuestionException iQE){
+            ErrorResponse errorResponse = new ErrorResponse().message(iQE.getErrorMessage()).code(iQE.getCode()).rootCause(iQE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.NOT_FOUND);
+        }catch(InvalidCursorException cursorE){
+            ErrorResponse errorResponse = new ErrorResponse().message(cursorE.getErrorMessage()).code(cursorE.getCode()).rootCause(cursorE.getMessage());
+            return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
+        }
+
+        QuestionThreadResponse threadResponse = new QuestionThreadResponse()
+                .id(questionDetail.getUuid())
+                .content(questionDetail.getContent())
+                .date(questionDetail.getDate().toOffsetDateTime())
+                .author(new ThreadAuthor().id(questionDetail.getAuthorUuid()).userName(questionDetail.getAuthorUserName()))
+                .answerCount(questionDetail.getAnswerCount())
+                .answers(new ArrayList<>())
+                .nextCursor(questionDetail.getAnswers().getNextCursor());
+        for (AnswerDetail answer : questionDetail.getAnswers().getItems()) {
+            threadResponse.addAnswersItem(new ThreadAnswer()
+                    .id(answer.getUuid())
+                    .content(answer.getContent())
+                    .date(answer.getDate().toOffsetDateTime())
+                    .author(new ThreadAuthor().id(answer.getAuthorUuid()).userName(answer.getAuthorUserName())));
+        }
+        //the tag is the one read along with the question, which may be older than the current one if the question was cached
+        return new ResponseEntity<QuestionThreadResponse>(threadResponse, QuestionETags.headers(QuestionETags.of(questionDetail.getVersion())), HttpStatus.OK);
+    }
+
     /**
      * private utility method for appending the uuid of questions.
      *
@@ -238,4 +591,24 @@ public class QuestionController {
         }
         return builder;
     }
+
+    /**
+     * private utility method for providing the questions of a page with their answer activity.
+     *
+     * @param questionPage page of questions
+     * @return response with the questions of the page and the cursor of the next page
+     */
+    private static QuestionActivityResponse toActivityResponse(final Page<Question> questionPage) {
+        QuestionActivityResponse activityResponse = new QuestionActivityResponse()
+                .questions(new ArrayList<>())
+                .nextCursor(questionPage.getNextCursor());
+        for (Question question : questionPage.getItems()) {
+            activityResponse.addQuestionsItem(new QuestionActivity()
+                    .id(question.getUuid())
+                    .content(question.getContent())
+                    .answerCount(question.getAnswerCount())
+                    .lastAnswerAt(question.getLastAnswerAt() == null ? null : question.getLastAnswerAt().toOffsetDateTime()));
+        }
+        return activityResponse;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.upgrad.quora.api.controller;
+
+import com.upgrad.quora.service.projection.QuestionVersion;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Utility class for the entity tags of the responses made of a question and its answers.
+ * The tag is made of the version of the question and of the version of its answers, so that it changes whenever
+ * the question or one of its answers is created, edited or deleted, and the client can be told that its copy is
+ * still current by reading the question row only.
+ */
+final class QuestionETags {
+
+    private QuestionETags() {
+    }
+
+    /**
+     * method used for getting the strong entity tag of a question and its answers.
+     *
+     * @param questionVersion versions of the question and of its answers
+     * @return quoted entity tag
+     */
+    static String of(final QuestionVersion questionVersion) {
+        return "\"" + questionVersion.getVersion() + "." + questionVersion.getAnswersVersion() + "\"";
+    }
+
+    /**
+     * method used for getting the response headers carrying an entity tag.
+     *
+     * @param eTag quoted entity tag
+     * @return response headers
+     */
+    static HttpHeaders headers(final String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        return headers;
+    }
+
+    /**
+     * method used for checking an If-None-Match request header against the current entity tag of a question.
+     * The tags are compared weakly, as required for If-None-Match, so that a tag weakened by a proxy still matches.
+     *
+     * @param ifNoneMatch value of the If-None-Match header, null if it is not sent
+     * @param eTag        current entity tag
+     * @return true if the client already has the current question and answers
+     */
+    static boolean matches(final String ifNoneMatch, final String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String clientETag : ifNoneMatch.split(",")) {
+            clientETag = clientETag.trim();
+            if (clientETag.startsWith("W/")) {
+                clientETag = clientETag.substring(2);
+            }
+            if (clientETag.equals("*") || clientETag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package com.upgrad.quora.api.exception;
+
+import com.upgrad.quora.api.model.ErrorResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Counts the error responses by their error code, e.g. ATHR-001 or QUES-001, as the "quora.errors" counter.
+ * The error responses are counted when they are written, as they are built both by the controllers and by
+ * the RestExceptionHandler.
+ */
+@ControllerAdvice
+public class ErrorCodeMetricsAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String ERROR_COUNTER = "quora.errors";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public boolean supports(final MethodParameter returnType, final Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(final Object body, final MethodParameter returnType, final MediaType selectedContentType,
+                                  final Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  final ServerHttpRequest request, final ServerHttpResponse response) {
+        if (body instanceof ErrorResponse && ((ErrorResponse) body).getCode() != null) {
+            meterRegistry.counter(ERROR_COUNTER, "code", ((ErrorResponse) body).getCode()).increment();
+        }
+        return body;
+    }
+}
@@ -1,16 +1,21 @@
 package com.upgrad.quora.api.controller;
 
 
+import com.jayway.jsonpath.JsonPath;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.util.Base64;
+import java.util.UUID;
+
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -48,5 +53,42 @@ public class AdminControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
     }
 
+    //This test case passes when the answers of a deleted user are no longer counted in the questions of the other users.
+    @Test
+    public void deleteUserRecountsAnswers() throws Exception {
+        String owner = "user_" + UUID.randomUUID().toString().substring(0, 8);
+        String answerer = "user_" + UUID.randomUUID().toString().substring(0, 8);
+        signUp(owner);
+        String answererUuid = signUp(answerer);
+        String ownerToken = signIn(owner);
+        String answererToken = signIn(answerer);
+        String questionUuid = JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/question/create").param("content", "which lakes are deepest").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", ownerToken))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.id");
+        mvc.perform(MockMvcRequestBuilders.post("/question/" + questionUuid + "/answer/create").param("answer", "baikal").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", answererToken))
+                .andExpect(status().isCreated());
+        mvc.perform(MockMvcRequestBuilders.post("/question/" + questionUuid + "/answer/create").param("answer", "tanganyika").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", ownerToken))
+                .andExpect(status().isCreated());
+        mvc.perform(MockMvcRequestBuilders.get("/question/recently-active").param("limit", "1").header("authorization", ownerToken))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(questionUuid))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].answerCount").value(2));
+
+        mvc.perform(MockMvcRequestBuilders.delete("/admin/user/" + answererUuid).header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/question/recently-active").param("limit", "1").header("authorization", ownerToken))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(questionUuid))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].answerCount").value(1));
+    }
 
+    private String signUp(final String userName) throws Exception {
+        return JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=" + userName + "&emailAddress=" + userName + "&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.id");
+    }
+
+    private String signIn(final String userName) throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.post("/user/signin").header("authorization", "Basic " + Base64.getEncoder().encodeToString((userName + ":a").getBytes())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("access-token");
+    }
 }
@@ -1,17 +1,34 @@
 package com.upgrad.quora.api.controller;
 
 
+import com.jayway.jsonpath.JsonPath;
+import com.upgrad.quora.service.business.AnswerService;
+import com.upgrad.quora.service.entity.Answer;
+import com.upgrad.quora.service.exception.EditConflictException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.Base64;
+import java.util.UUID;
+
+import static com.upgrad.quora.api.controller.ControllerTestSupport.countStatements;
+import static com.upgrad.quora.api.controller.ControllerTestSupport.createAnswer;
+import static com.upgrad.quora.api.controller.ControllerTestSupport.createQuestion;
+import static com.upgrad.quora.api.controller.ControllerTestSupport.signUpAndSignIn;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -23,6 +40,12 @@ public class AnswerControllerTest {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AnswerService answerService;
+
 
     //This test case passes when you try to create the answer but the JWT token entered does not exist in the database.
     @Test
@@ -136,5 +159,117 @@ public class AnswerControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
     }
 
+    //This test case passes when all the answers posted for a specific question are exported as a JSON array streamed to the response.
+    @Test
+    public void exportAllAnswersToQuestion() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/answer/export/database_question_uuid").header("authorization", "database_accesstoken"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value("database_answer_uuid"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].answerContent").value("my_answer"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].questionContent").value("database_question_content"));
+    }
+
+    //This test case passes when you try to export the answers posted for a specific question which does not exist in the database.
+    @Test
+    public void exportAllAnswersToNonExistingQuestion() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/answer/export/non_existing_question_uuid").header("authorization", "database_accesstoken"))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
+    }
+
+    //This test case passes when the number of SQL statements run to list the answers to a question does not grow with the number of answers and of their authors.
+    @Test
+    public void getAllAnswersToQuestionRunsConstantStatementCount() throws Exception {
+        String userName = "user_" + UUID.randomUUID().toString().substring(0, 8);
+        mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=" + userName + "&emailAddress=" + userName + "&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isCreated());
+        String accessToken = mvc.perform(MockMvcRequestBuilders.post("/user/signin").header("authorization", "Basic " + Base64.getEncoder().encodeToString((userName + ":a").getBytes())))
+                .andReturn().getResponse().getHeader("access-token");
+        String questionUuid = JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andReturn().getResponse().getContentAsString(), "$.id");
+
+        mvc.perform(MockMvcRequestBuilders.post("/question/" + questionUuid + "/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isCreated());
+        long statementsForOneAnswer = countStatements(mvc, entityManagerFactory, MockMvcRequestBuilders.get("/answer/all/" + questionUuid).header("authorization", accessToken));
 
+        for (String answerAuthor : new String[]{"database_accesstoken", "database_accesstoken1", "database_accesstoken2"}) {
+            mvc.perform(MockMvcRequestBuilders.post("/question/" + questionUuid + "/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", answerAuthor))
+                    .andExpect(status().isCreated());
+        }
+        assertEquals(statementsForOneAnswer, countStatements(mvc, entityManagerFactory, MockMvcRequestBuilders.get("/answer/all/" + questionUuid).header("authorization", accessToken)));
+    }
+
+    //This test case passes when the answers deleted by the database along with their question are no longer served from the second-level cache.
+    @Test
+    public void editAnswerOfDeletedQuestion() throws Exception {
+        String userName = "user_" + UUID.randomUUID().toString().substring(0, 8);
+        mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=" + userName + "&emailAddress=" + userName + "&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isCreated());
+        String accessToken = mvc.perform(MockMvcRequestBuilders.post("/user/signin").header("authorization", "Basic " + Base64.getEncoder().encodeToString((userName + ":a").getBytes())))
+                .andReturn().getResponse().getHeader("access-token");
+        String questionUuid = JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andReturn().getResponse().getContentAsString(), "$.id");
+        String answerUuid = JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/question/" + questionUuid + "/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.id");
+
+        //caches the answer and its lookup by uuid
+        mvc.perform(MockMvcRequestBuilders.put("/answer/edit/" + answerUuid + "?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/" + answerUuid).header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden());
+
+        mvc.perform(MockMvcRequestBuilders.delete("/question/delete/" + questionUuid).header("authorization", accessToken))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.put("/answer/edit/" + answerUuid + "?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ANS-001"));
+    }
+
+    //This test case passes when a client holding the current answers to a question is answered with not modified, until one of the answers is edited.
+    @Test
+    public void getAllAnswersToQuestionNotModified() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String questionUuid = createQuestion(mvc, accessToken, "my_question");
+        String answerUuid = createAnswer(mvc, accessToken, questionUuid, "my_answer");
+        String eTag = mvc.perform(MockMvcRequestBuilders.get("/answer/all/" + questionUuid).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/" + questionUuid).header("authorization", accessToken).header(HttpHeaders.IF_NONE_MATCH, "\"0.0\", " + eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, eTag));
+
+        mvc.perform(MockMvcRequestBuilders.put("/answer/edit/" + answerUuid + "?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isOk());
+        String editedETag = mvc.perform(MockMvcRequestBuilders.get("/answer/all/" + questionUuid).header("authorization", accessToken).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("answerContent").value("edited_answer,"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, editedETag);
+    }
+
+    //This test case passes when an edit of an answer read before another edit of the same answer is rejected instead of overwriting it.
+    @Test
+    public void editStaleAnswer() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String questionUuid = createQuestion(mvc, accessToken, "my_question");
+        String answerUuid = createAnswer(mvc, accessToken, questionUuid, "my_answer");
+        Answer staleAnswer = answerService.getAnswerForUuId(answerUuid);
+
+        mvc.perform(MockMvcRequestBuilders.put("/answer/edit/" + answerUuid + "?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isOk());
+        staleAnswer.setAnswer("stale_answer");
+        try {
+            answerService.editAnswer(staleAnswer);
+            fail();
+        } catch (EditConflictException e) {
+            assertEquals("ANS-002", e.getCode());
+        }
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/" + questionUuid).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("answerContent").value("edited_answer,"));
+    }
 }
@@ -25,7 +25,9 @@ public class CommonControllerTest {
     @Test
     public void details() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("user_name").value("database_username1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("email_address").value("database_email1"));
     }
 
     //This test case passes when you try to get the details of the existing user but the JWT token entered does not exist in the database.
@@ -0,0 +1,64 @@
+package com.upgrad.quora.api.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fixtures shared by the controller tests: users, questions and answers created through the endpoints,
+ * and the count of the statements run by a request.
+ */
+final class ControllerTestSupport {
+
+    private ControllerTestSupport() {
+    }
+
+    static String signUpAndSignIn(final MockMvc mvc) throws Exception {
+        String userName = "user_" + UUID.randomUUID().toString().substring(0, 8);
+        mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=" + userName + "&emailAddress=" + userName + "&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isCreated());
+        return mvc.perform(MockMvcRequestBuilders.post("/user/signin").header("authorization", "Basic " + Base64.getEncoder().encodeToString((userName + ":a").getBytes())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("access-token");
+    }
+
+    static String createQuestion(final MockMvc mvc, final String accessToken, final String content) throws Exception {
+        return JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/question/create").param("content", content).contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.id");
+    }
+
+    static String createAnswer(final MockMvc mvc, final String accessToken, final String questionUuid, final String answer) throws Exception {
+        return JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/question/" + questionUuid + "/answer/create").param("answer", answer).contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.id");
+    }
+
+    //the statistics of hibernate are process wide, they are cleared and read right around the request,
+    //and the test profile disables the scheduled jobs, so that no other statement is counted meanwhile
+    static long countStatements(final MockMvc mvc, final EntityManagerFactory entityManagerFactory, final RequestBuilder request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            statistics.clear();
+            ResultActions result = mvc.perform(request);
+            long statements = statistics.getPrepareStatementCount();
+            result.andExpect(status().isOk());
+            return statements;
+        } finally {
+            statistics.setStatisticsEnabled(false);
+            statistics.clear();
+        }
+    }
+}
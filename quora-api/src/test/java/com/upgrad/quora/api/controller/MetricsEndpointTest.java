@@ -0,0 +1,105 @@
+package com.upgrad.quora.api.controller;
+
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.web.server.LocalManagementPort;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureMockMvc
+public class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    //This test case passes when the wait for a pooled connection is published as a timer of the quora pool once the database has been used.
+    @Test
+    public void connectionAcquireTime() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk());
+        List<Object> count = JsonPath.read(management("/actuator/metrics/hikaricp.connections.acquire?tag=pool:quora"), "measurements[?(@.statistic == 'COUNT')].value");
+        assertEquals(1, count.size());
+    }
+
+    //This test case passes when the active and idle connections, the connection timeouts and the maximum size of the pool are published.
+    @Test
+    public void connectionCounts() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk());
+        management("/actuator/metrics/hikaricp.connections.active?tag=pool:quora");
+        management("/actuator/metrics/hikaricp.connections.idle?tag=pool:quora");
+        management("/actuator/metrics/hikaricp.connections.timeout?tag=pool:quora");
+        Double max = JsonPath.read(management("/actuator/metrics/jdbc.connections.max?tag=name:dataSource"), "measurements[0].value");
+        assertEquals(Runtime.getRuntime().availableProcessors() * 2 + 1, max.intValue());
+    }
+
+    //This test case passes when the request timer of an endpoint is published with its percentiles on the prometheus scrape endpoint.
+    @Test
+    public void requestTimerPercentiles() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk());
+        String scrape = management("/actuator/prometheus");
+        assertThat(scrape, containsString("http_server_requests_seconds{exception=\"None\",method=\"GET\",status=\"200\",uri=\"/userprofile/{userId}\",quantile=\"0.99\",}"));
+        assertThat(scrape, containsString("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\",status=\"200\",uri=\"/userprofile/{userId}\""));
+    }
+
+    //This test case passes when an error response is counted by its error code, whether it is built by a controller or by the exception handler.
+    @Test
+    public void errorCodeCounter() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden());
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/non_existing_question_uuid").header("authorization", "database_accesstoken"))
+                .andExpect(status().isNotFound());
+        String scrape = management("/actuator/prometheus");
+        assertThat(scrape, containsString("quora_errors_total{code=\"ATHR-001\",}"));
+        assertThat(scrape, containsString("quora_errors_total{code=\"QUES-001\",}"));
+    }
+
+    //This test case passes when the DAO calls of a request are timed per DAO method.
+    @Test
+    public void daoTimer() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk());
+        String scrape = management("/actuator/prometheus");
+        assertThat(scrape, containsString("quora_dao_seconds_count{dao=\"UserDao\""));
+        assertThat(scrape, containsString("quora_dao_seconds{dao=\"UserDao\",exception=\"None\",method=\"getUserByUuid\",quantile=\"0.95\",}"));
+    }
+
+    //This test case passes when the actuator endpoints are not served on the port of the application.
+    @Test
+    public void metricsNotOnApplicationPort() throws Exception {
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+        assertThat(response.getStatusCode(), not(HttpStatus.OK));
+    }
+
+    private String management(final String path) {
+        ResponseEntity<String> response = restTemplate.getForEntity("http://127.0.0.1:" + managementPort + path, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+}
@@ -1,17 +1,37 @@
 package com.upgrad.quora.api.controller;
 
 
+import com.jayway.jsonpath.JsonPath;
+import com.upgrad.quora.service.business.QuestionService;
+import com.upgrad.quora.service.entity.Question;
+import com.upgrad.quora.service.exception.EditConflictException;
+import com.upgrad.quora.service.search.QuestionSearchIndex;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.Base64;
+import java.util.UUID;
+
+import static com.upgrad.quora.api.controller.ControllerTestSupport.countStatements;
+import static com.upgrad.quora.api.controller.ControllerTestSupport.createAnswer;
+import static com.upgrad.quora.api.controller.ControllerTestSupport.createQuestion;
+import static com.upgrad.quora.api.controller.ControllerTestSupport.signUpAndSignIn;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -23,6 +43,15 @@ public class QuestionControllerTest {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private QuestionSearchIndex questionSearchIndex;
+
+    @Autowired
+    private QuestionService questionService;
+
 
     //This test case passes when you try to create the question but the JWT token entered does not exist in the database.
     @Test
@@ -152,6 +181,454 @@ public class QuestionControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
     }
 
+    //This test case passes when a user who has just signed in creates a question with the access token received on sign in.
+    @Test
+    public void createQuestionWithSignedInUser() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("status").value("QUESTION CREATED"));
+    }
+
+    //This test case passes when the questions of a user are returned page by page, each page continuing where the previous one ended.
+    @Test
+    public void getAllQuestionsByUserPageByPage() throws Exception {
+        String userName = "user_" + UUID.randomUUID().toString().substring(0, 8);
+        String userUuid = JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=" + userName + "&emailAddress=" + userName + "&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.id");
+        String accessToken = mvc.perform(MockMvcRequestBuilders.post("/user/signin").header("authorization", "Basic " + Base64.getEncoder().encodeToString((userName + ":a").getBytes())))
+                .andReturn().getResponse().getHeader("access-token");
+        for (String content : new String[]{"first_question", "second_question", "third_question"}) {
+            mvc.perform(MockMvcRequestBuilders.post("/question/create?content=" + content).contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                    .andExpect(status().isCreated());
+        }
 
-}
+        String firstPage = mvc.perform(MockMvcRequestBuilders.get("/question/all/" + userUuid + "?limit=2").header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content").value("third_question,second_question,"))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        mvc.perform(MockMvcRequestBuilders.get("/question/all/" + userUuid + "?limit=2&cursor=" + JsonPath.read(firstPage, "$.nextCursor")).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content").value("first_question,"))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor").doesNotExist());
+    }
+
+    //This test case passes when you try to get a page of questions with a cursor which has not been returned by the application.
+    @Test
+    public void getAllQuestionsWithInvalidCursor() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/all?cursor=not_a_cursor").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUER-003"));
+    }
+
+    //This test case passes when all the questions are exported as a JSON array streamed to the response.
+    @Test
+    public void exportAllQuestions() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/question/export").header("authorization", "database_accesstoken1"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == 'database_question_uuid')].content").value("database_question_content"));
+    }
+
+    //This test case passes when the number of SQL statements run to list the questions does not grow with the number of questions and of their authors.
+    @Test
+    public void getAllQuestionsRunsConstantStatementCount() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        for (String questionAuthor : new String[]{accessToken, "database_accesstoken", "database_accesstoken1", "database_accesstoken2"}) {
+            mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", questionAuthor))
+                    .andExpect(status().isCreated());
+        }
+        assertEquals(countStatements(mvc, entityManagerFactory, MockMvcRequestBuilders.get("/question/all?limit=1").header("authorization", accessToken)),
+                countStatements(mvc, entityManagerFactory, MockMvcRequestBuilders.get("/question/all?limit=4").header("authorization", accessToken)));
+    }
+
+    //This test case passes when the items of a bulk import are stored or rejected one by one and their results are streamed back, one line per item.
+    @Test
+    public void importQuestionsAndAnswers() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String questionUuid = JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andReturn().getResponse().getContentAsString(), "$.id");
+        String body = "{\"content\":\"imported_question\",\"answers\":[\"first_imported_answer\",\"second_imported_answer\"]}\n"
+                + "{\"questionId\":\"" + questionUuid + "\",\"answers\":[\"imported_answer\"]}\n"
+                + "\n"
+                + "not a json item\n"
+                + "{\"content\":\" \"}\n"
+                + "{\"questionId\":\"non_existing_question_uuid\",\"answers\":[\"imported_answer\"]}\n"
+                + "{\"questionId\":\"" + questionUuid + "\",\"content\":\"imported_question\"}\n";
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/question/import").contentType(QuestionController.APPLICATION_NDJSON_VALUE).content(body).header("authorization", accessToken))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        String[] results = mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(QuestionController.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertEquals(6, results.length);
+        assertEquals("CREATED", JsonPath.read(results[0], "$.status"));
+        assertEquals(2, (int) JsonPath.read(results[0], "$.answerIds.length()"));
+        assertEquals("CREATED", JsonPath.read(results[1], "$.status"));
+        assertEquals(questionUuid, JsonPath.read(results[1], "$.questionId"));
+        assertEquals(4, (int) JsonPath.read(results[2], "$.line"));
+        assertEquals("IMP-001", JsonPath.read(results[2], "$.code"));
+        assertEquals("IMP-003", JsonPath.read(results[3], "$.code"));
+        assertEquals("QUES-001", JsonPath.read(results[4], "$.code"));
+        assertEquals("IMP-002", JsonPath.read(results[5], "$.code"));
+
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/" + JsonPath.read(results[0], "$.questionId")).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questionContent").value("imported_question"))
+                .andExpect(MockMvcResultMatchers.jsonPath("answerContent").value(containsString("second_imported_answer")));
+    }
+
+    //This test case passes when you try to import questions but the JWT token entered does not exist in the database.
+    @Test
+    public void importQuestionsWithNonExistingAccessToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/question/import").contentType(QuestionController.APPLICATION_NDJSON_VALUE).content("{\"content\":\"imported_question\"}\n").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+
+    //This test case passes when the questions matching the search text in their content or in their answers are returned best match first, page by page.
+    @Test
+    public void searchQuestionsPageByPage() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String word = randomWord();
+        String contentMatch = createQuestion(mvc, accessToken, "when do " + word + " birds migrate");
+        String answerMatch = createQuestion(mvc, accessToken, "which birds migrate in winter");
+        createQuestion(mvc, accessToken, "which birds do not migrate");
+        mvc.perform(MockMvcRequestBuilders.post("/question/" + answerMatch + "/answer/create").param("answer", "the " + word + " does").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isCreated());
+
+        String firstPage = mvc.perform(MockMvcRequestBuilders.get("/question/search").param("query", word).param("limit", "1").header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(contentMatch))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        mvc.perform(MockMvcRequestBuilders.get("/question/search").param("query", word).param("limit", "1").param("cursor", (String) JsonPath.read(firstPage, "$.nextCursor")).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(answerMatch))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor").doesNotExist());
+    }
+
+    //This test case passes when an edited question is found by the words of its new content only.
+    @Test
+    public void searchEditedQuestion() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String oldWord = randomWord();
+        String newWord = randomWord();
+        String questionUuid = createQuestion(mvc, accessToken, "what is a " + oldWord);
+        mvc.perform(MockMvcRequestBuilders.put("/question/edit/" + questionUuid).param("content", "what is a " + newWord).contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isOk());
+
+        mvc.perform(MockMvcRequestBuilders.get("/question/search").param("query", oldWord).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(0));
+        mvc.perform(MockMvcRequestBuilders.get("/question/search").param("query", newWord).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(questionUuid));
+    }
+
+    //This test case passes when you try to search the questions without any word to search for.
+    @Test
+    public void searchQuestionsWithEmptyQuery() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search").param("query", " ").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUER-004"));
+    }
+
+    //This test case passes when you try to get a page of search results with a cursor which has not been returned by the application.
+    @Test
+    public void searchQuestionsWithInvalidCursor() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search").param("query", "question").param("cursor", "not_a_cursor").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUER-003"));
+    }
+
+    //This test case passes when you try to search the questions but the JWT token entered does not exist in the database.
+    @Test
+    public void searchQuestionsWithNonExistingAccessToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search").param("query", "question").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when a question is returned with its author and its answers with their authors, oldest answer first, page by page.
+    @Test
+    public void getQuestionDetailPageByPage() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String questionUuid = createQuestion(mvc, accessToken, "which mountains are highest");
+        String firstAnswer = createAnswer(mvc, accessToken, questionUuid, "everest");
+        String secondAnswer = createAnswer(mvc, "database_accesstoken1", questionUuid, "k2");
+        String thirdAnswer = createAnswer(mvc, accessToken, questionUuid, "kangchenjunga");
+
+        String firstPage = mvc.perform(MockMvcRequestBuilders.get("/question/" + questionUuid).param("limit", "2").header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(questionUuid))
+                .andExpect(MockMvcResultMatchers.jsonPath("content").value("which mountains are highest"))
+                .andExpect(MockMvcResultMatchers.jsonPath("author.userName").value(containsString("user_")))
+                .andExpect(MockMvcResultMatchers.jsonPath("answerCount").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers[0].id").value(firstAnswer))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers[1].id").value(secondAnswer))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers[1].author.id").value("database_uuid1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers[1].author.userName").value("database_username1"))
+                .andReturn().getResponse().getContentAsString();
+        mvc.perform(MockMvcRequestBuilders.get("/question/" + questionUuid).param("limit", "2").param("cursor", (String) JsonPath.read(firstPage, "$.nextCursor")).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(questionUuid))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers[0].id").value(thirdAnswer))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers[0].content").value("kangchenjunga"))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor").doesNotExist());
+    }
+
+    //This test case passes when the number of SQL statements run to get a question with its answers does not grow with the number of answers and of their authors.
+    @Test
+    public void getQuestionDetailRunsConstantStatementCount() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String questionUuid = createQuestion(mvc, accessToken, "which seas are saltiest");
+        for (String answerAuthor : new String[]{accessToken, "database_accesstoken", "database_accesstoken1", "database_accesstoken2"}) {
+            createAnswer(mvc, answerAuthor, questionUuid, "the dead sea");
+        }
+        assertEquals(countStatements(mvc, entityManagerFactory, MockMvcRequestBuilders.get("/question/" + questionUuid).param("limit", "1").header("authorization", accessToken)),
+                countStatements(mvc, entityManagerFactory, MockMvcRequestBuilders.get("/question/" + questionUuid).param("limit", "4").header("authorization", accessToken)));
+    }
+
+    //This test case passes when the cached question detail is replaced once the question is edited or answered.
+    @Test
+    public void getQuestionDetailAfterEditAndAnswer() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String questionUuid = createQuestion(mvc, accessToken, "which deserts are driest");
+        mvc.perform(MockMvcRequestBuilders.get("/question/" + questionUuid).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("answers.length()").value(0));
 
+        mvc.perform(MockMvcRequestBuilders.put("/question/edit/" + questionUuid).param("content", "which deserts are coldest").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/question/" + questionUuid).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content").value("which deserts are coldest"));
+
+        createAnswer(mvc, accessToken, questionUuid, "antarctica");
+        mvc.perform(MockMvcRequestBuilders.get("/question/" + questionUuid).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("answerCount").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers[0].content").value("antarctica"));
+    }
+
+    //This test case passes when you try to get the details of a question which does not exist in the database.
+    @Test
+    public void getQuestionDetailForNonExistingQuestion() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/non_existing_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
+    }
+
+    //This test case passes when you try to get the details of a question but the JWT token entered does not exist in the database.
+    @Test
+    public void getQuestionDetailWithNonExistingAccessToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when a client holding the current question and answers is answered with not modified, until the question is edited or answered.
+    @Test
+    public void getQuestionDetailNotModified() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String questionUuid = createQuestion(mvc, accessToken, "which lakes are deepest");
+        String eTag = mvc.perform(MockMvcRequestBuilders.get("/question/" + questionUuid).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(MockMvcRequestBuilders.get("/question/" + questionUuid).header("authorization", accessToken).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        createAnswer(mvc, "database_accesstoken1", questionUuid, "baikal");
+        String answeredETag = mvc.perform(MockMvcRequestBuilders.get("/question/" + questionUuid).header("authorization", accessToken).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("answerCount").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, answeredETag);
+
+        mvc.perform(MockMvcRequestBuilders.put("/question/edit/" + questionUuid).param("content", "which lakes are widest").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/question/" + questionUuid).header("authorization", accessToken).header(HttpHeaders.IF_NONE_MATCH, answeredETag))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content").value("which lakes are widest"));
+    }
+
+    //This test case passes when an edit of a question read before another edit of the same question is rejected instead of overwriting it.
+    @Test
+    public void editStaleQuestion() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String questionUuid = createQuestion(mvc, accessToken, "which rivers are longest");
+        Question staleQuestion = questionService.getQuestionForUuId(questionUuid);
+
+        mvc.perform(MockMvcRequestBuilders.put("/question/edit/" + questionUuid).param("content", "which rivers are widest").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isOk());
+        staleQuestion.setContent("which rivers are coldest");
+        try {
+            questionService.editQuestion(staleQuestion);
+            fail();
+        } catch (EditConflictException e) {
+            assertEquals("QUES-002", e.getCode());
+        }
+        mvc.perform(MockMvcRequestBuilders.get("/question/" + questionUuid).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content").value("which rivers are widest"));
+    }
+
+    //This test case passes when the answered questions are listed most recently answered first with their answer counts, and a question whose only answer is deleted is no longer listed.
+    @Test
+    public void recentlyActiveQuestions() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String olderQuestion = createQuestion(mvc, accessToken, "which trees grow fastest");
+        String newerQuestion = createQuestion(mvc, accessToken, "which trees live longest");
+        createAnswer(mvc, accessToken, olderQuestion, "poplars");
+        createAnswer(mvc, accessToken, olderQuestion, "willows");
+        String answerUuid = createAnswer(mvc, accessToken, newerQuestion, "pines");
+
+        String firstPage = mvc.perform(MockMvcRequestBuilders.get("/question/recently-active").param("limit", "1").header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(newerQuestion))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].answerCount").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].lastAnswerAt").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        mvc.perform(MockMvcRequestBuilders.get("/question/recently-active").param("limit", "1").param("cursor", (String) JsonPath.read(firstPage, "$.nextCursor")).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(olderQuestion))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].answerCount").value(2));
+
+        mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/" + answerUuid).header("authorization", accessToken))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/question/recently-active").param("limit", "1").header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(olderQuestion));
+    }
+
+    //This test case passes when the questions are listed most answered first, with the answer counts kept by the answer create and delete paths.
+    @Test
+    public void mostAnsweredQuestions() throws Exception {
+        String accessToken = signUpAndSignIn(mvc);
+        String questionUuid = createQuestion(mvc, accessToken, "which rivers are longest");
+        for (String answer : new String[]{"the nile", "the amazon", "the yangtze", "the mississippi"}) {
+            createAnswer(mvc, accessToken, questionUuid, answer);
+        }
+        mvc.perform(MockMvcRequestBuilders.get("/question/most-answered").param("limit", "100").header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[?(@.id == '" + questionUuid + "')].answerCount").value(4));
+
+        String firstPage = mvc.perform(MockMvcRequestBuilders.get("/question/most-answered").param("limit", "2").header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(2))
+                .andReturn().getResponse().getContentAsString();
+        int lastCount = JsonPath.read(firstPage, "$.questions[1].answerCount");
+        int nextCount = JsonPath.read(mvc.perform(MockMvcRequestBuilders.get("/question/most-answered").param("limit", "1").param("cursor", (String) JsonPath.read(firstPage, "$.nextCursor")).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), "$.questions[0].answerCount");
+        assertTrue(nextCount <= lastCount);
+    }
+
+    //This test case passes when you try to get a page of the most answered questions with a cursor which has not been returned by the application.
+    @Test
+    public void mostAnsweredQuestionsWithInvalidCursor() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/most-answered").param("cursor", "not_a_cursor").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUER-003"));
+    }
+
+    //This test case passes when the questions containing a word starting with the typed text are suggested, newest first, and the words of the answers are not.
+    @Test
+    public void typeaheadQuestions() throws Exception {
+        awaitSearchIndex();
+        String accessToken = signUpAndSignIn(mvc);
+        String word = randomWord();
+        String answerWord = randomWord();
+        String olderQuestion = createQuestion(mvc, accessToken, "where do " + word + " nest");
+        String newerQuestion = createQuestion(mvc, accessToken, "why do " + word + " sing");
+        mvc.perform(MockMvcRequestBuilders.post("/question/" + olderQuestion + "/answer/create").param("answer", "in " + answerWord).contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isCreated());
+
+        mvc.perform(MockMvcRequestBuilders.get("/question/typeahead").param("query", word.substring(0, 8)).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(newerQuestion))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[1].id").value(olderQuestion));
+        mvc.perform(MockMvcRequestBuilders.get("/question/typeahead").param("query", "Nest " + word.substring(0, 8)).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(olderQuestion));
+        mvc.perform(MockMvcRequestBuilders.get("/question/typeahead").param("query", word.substring(0, 8) + " ").header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(0));
+        mvc.perform(MockMvcRequestBuilders.get("/question/typeahead").param("query", answerWord).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(0));
+    }
+
+    //This test case passes when the questions are no longer found by the words of their deleted answers, nor at all once they are deleted.
+    @Test
+    public void searchIndexFollowsDeletes() throws Exception {
+        awaitSearchIndex();
+        String accessToken = signUpAndSignIn(mvc);
+        String word = randomWord();
+        String answerWord = randomWord();
+        String questionUuid = createQuestion(mvc, accessToken, "how do " + word + " hunt");
+        String answerUuid = JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/question/" + questionUuid + "/answer/create").param("answer", "alone " + answerWord).contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", accessToken))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.id");
+        mvc.perform(MockMvcRequestBuilders.get("/question/search").param("query", word + " " + answerWord).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(questionUuid));
+
+        mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/" + answerUuid).header("authorization", accessToken))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/question/search").param("query", answerWord).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(0));
+
+        mvc.perform(MockMvcRequestBuilders.delete("/question/delete/" + questionUuid).header("authorization", accessToken))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/question/search").param("query", word).header("authorization", accessToken))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(0));
+    }
+
+    //This test case passes when you try to get question suggestions but the JWT token entered does not exist in the database.
+    @Test
+    public void typeaheadWithNonExistingAccessToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/typeahead").param("query", "question").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //the search index is loaded in the background once the application is started
+    private void awaitSearchIndex() throws InterruptedException {
+        for (int i = 0; i < 300 && !questionSearchIndex.isReady(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(questionSearchIndex.isReady());
+    }
+
+
+
+    //a word made of letters only, so that the full text search parses it as a single word which no other question contains
+    private static String randomWord() {
+        StringBuilder word = new StringBuilder("w");
+        for (char c : UUID.randomUUID().toString().replace("-", "").substring(0, 12).toCharArray()) {
+            word.append(Character.isDigit(c) ? (char) ('g' + (c - '0')) : c);
+        }
+        return word.toString();
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.common.PageCursor;
+import com.upgrad.quora.service.common.TokenDigest;
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.Answer;
+import com.upgrad.quora.service.entity.Question;
+import com.upgrad.quora.service.entity.UserAuthEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Benchmarks of the DAO lookups and listings against an embedded H2 database.
+ * The number of questions is set with the "questions" parameter, e.g. -p questions=1000000,
+ * there is one user for every ten questions, one session per user and one answer per question.
+ * createAnswers measures a transaction inserting a batch of answers, as done by a bulk import.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int ANSWERS_PER_TRANSACTION = 50;
+
+    //ids of the pooled sequences, every nextval reserves the block of ids ending at the returned value
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    @Param({"10000", "100000"})
+    private int questions;
+
+    private AnnotationConfigApplicationContext context;
+
+    private TransactionTemplate transactionTemplate;
+
+    private UserDao userDao;
+
+    private QuestionDao questionDao;
+
+    private AnswerDao answerDao;
+
+    private int users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(BenchDatabaseConfiguration.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        userDao = context.getBean(UserDao.class);
+        questionDao = context.getBean(QuestionDao.class);
+        answerDao = context.getBean(AnswerDao.class);
+        users = Math.max(1, questions / 10);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserAuthEntity getUserAuthToken() {
+        final int user = randomId(users);
+        return transactionTemplate.execute(status -> userDao.getUserAuthToken("token-" + user));
+    }
+
+    @Benchmark
+    public Question getQuestion() {
+        final int question = randomId(questions);
+        return transactionTemplate.execute(status -> questionDao.getQuestion("question-" + question));
+    }
+
+    @Benchmark
+    public List<Question> getFirstQuestionsPage() {
+        return transactionTemplate.execute(status -> questionDao.getQuestionsPage(null, PAGE_SIZE + 1));
+    }
+
+    @Benchmark
+    public List<Question> getQuestionsPageInTheMiddle() {
+        final int question = randomId(questions);
+        final PageCursor cursor = new PageCursor(questionDate(question), question);
+        return transactionTemplate.execute(status -> questionDao.getQuestionsPage(cursor, PAGE_SIZE + 1));
+    }
+
+    @Benchmark
+    public List<Answer> createAnswers() {
+        final int question = randomId(questions);
+        return transactionTemplate.execute(status -> {
+            Question answeredQuestion = questionDao.getQuestion("question-" + question);
+            List<Answer> answers = new ArrayList<>(ANSWERS_PER_TRANSACTION);
+            for (int i = 0; i < ANSWERS_PER_TRANSACTION; i++) {
+                Answer answer = new Answer();
+                answer.setUuid(UUID.randomUUID().toString());
+                answer.setAnswer("answer " + i);
+                answer.setDate(ZonedDateTime.now());
+                answer.setUser(answeredQuestion.getUser());
+                answer.setQuestion(answeredQuestion);
+                answers.add(answerDao.createAnswer(answer));
+            }
+            return answers;
+        });
+    }
+
+    @Benchmark
+    public List<Answer> getAnswersForQuestion() {
+        final int question = randomId(questions);
+        return transactionTemplate.execute(status -> answerDao.getAnswersForQuestion("question-" + question));
+    }
+
+    private static int randomId(final int count) {
+        return 1 + ThreadLocalRandom.current().nextInt(count);
+    }
+
+    private static ZonedDateTime questionDate(final int question) {
+        return ZonedDateTime.of(2018, 1, 1, 0, 0, 0, 0, ZoneId.systemDefault()).plusSeconds(question);
+    }
+
+    private void seed(final JdbcTemplate jdbcTemplate) {
+        final Timestamp expiresAt = Timestamp.from(ZonedDateTime.now().plusHours(8).toInstant());
+        batchInsert(jdbcTemplate, "INSERT INTO USERS(id, uuid, firstName, lastName, userName, email, password, salt, role) VALUES (?, ?, 'first', 'last', ?, ?, 'password', 'salt', 'nonadmin')",
+                users, id -> new Object[]{id, "user-" + id, "user" + id, "user" + id + "@quora.io"});
+        batchInsert(jdbcTemplate, "INSERT INTO USER_AUTH(id, uuid, user_id, access_token_digest, expires_at) VALUES (?, ?, ?, ?, ?)",
+                users, id -> new Object[]{id, "user-" + id, id, TokenDigest.of("token-" + id).getBytes(), expiresAt});
+        batchInsert(jdbcTemplate, "INSERT INTO QUESTION(id, uuid, content, date, user_id) VALUES (?, ?, ?, ?, ?)",
+                questions, id -> new Object[]{id, "question-" + id, "question content " + id, Timestamp.from(questionDate(id).toInstant()), 1 + id % users});
+        batchInsert(jdbcTemplate, "INSERT INTO ANSWER(id, uuid, ans, date, user_id, question_id) VALUES (?, ?, ?, ?, ?, ?)",
+                questions, id -> new Object[]{id, "answer-" + id, "answer " + id, Timestamp.from(questionDate(id).toInstant()), 1 + (id * 7) % users, id});
+        jdbcTemplate.execute("ALTER SEQUENCE ANSWER_ID_SEQ RESTART WITH " + (questions + ID_ALLOCATION_SIZE));
+    }
+
+    private static void batchInsert(final JdbcTemplate jdbcTemplate, final String sql, final int rows, final IntFunction<Object[]> row) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int id = 1; id <= rows; id++) {
+            batch.add(row.apply(id));
+            if (batch.size() == BATCH_SIZE || id == rows) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+    }
+}
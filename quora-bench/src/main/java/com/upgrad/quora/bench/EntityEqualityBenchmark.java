@@ -0,0 +1,107 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.entity.Question;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the uuid based equals, hashCode and toString of the entities with the reflection based
+ * commons-lang builders they replace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityEqualityBenchmark {
+
+    private static final int SET_SIZE = 1000;
+
+    private Question question;
+
+    private Question sameQuestion;
+
+    private Set<Question> questions;
+
+    @Setup
+    public void setUp() {
+        UserEntity user = new UserEntity();
+        user.setUser_id(1);
+        user.setUuid(UUID.randomUUID().toString());
+        user.setUsername("bench_user");
+
+        question = newQuestion(user, UUID.randomUUID().toString());
+        sameQuestion = newQuestion(user, question.getUuid());
+
+        questions = new HashSet<>();
+        for (int i = 0; i < SET_SIZE; i++) {
+            questions.add(newQuestion(user, UUID.randomUUID().toString()));
+        }
+        questions.add(question);
+    }
+
+    @Benchmark
+    public boolean reflectionEquals() {
+        return EqualsBuilder.reflectionEquals(question, sameQuestion);
+    }
+
+    @Benchmark
+    public boolean uuidEquals() {
+        return question.equals(sameQuestion);
+    }
+
+    @Benchmark
+    public int reflectionHashCode() {
+        return HashCodeBuilder.reflectionHashCode(question);
+    }
+
+    @Benchmark
+    public int uuidHashCode() {
+        return question.hashCode();
+    }
+
+    @Benchmark
+    public String reflectionToString() {
+        return ToStringBuilder.reflectionToString(question, ToStringStyle.MULTI_LINE_STYLE);
+    }
+
+    @Benchmark
+    public String plainToString() {
+        return question.toString();
+    }
+
+    @Benchmark
+    public boolean setContains() {
+        return questions.contains(sameQuestion);
+    }
+
+    private static Question newQuestion(final UserEntity user, final String uuid) {
+        Question question = new Question();
+        question.setId(uuid.hashCode());
+        question.setUuid(uuid);
+        question.setContent("What is the fastest way to compare two entities?");
+        question.setDate(ZonedDateTime.now());
+        question.setUser(user);
+        return question;
+    }
+}
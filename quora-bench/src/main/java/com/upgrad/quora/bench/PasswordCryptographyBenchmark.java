@@ -0,0 +1,59 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the password hashing done on sign up and sign in, for the legacy and the current iteration counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordCryptographyBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"1000", "210000"})
+    private int iterations;
+
+    private PasswordCryptographyProvider provider;
+
+    private String[] encrypted;
+
+    @Setup
+    public void setUp() {
+        provider = new PasswordCryptographyProvider(iterations, 1, 64, TimeUnit.MINUTES.toMillis(1));
+        encrypted = provider.encrypt(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        provider.shutdown();
+    }
+
+    @Benchmark
+    public String[] encrypt() {
+        return provider.encrypt(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return provider.matches(PASSWORD, encrypted[0], encrypted[1]);
+    }
+}
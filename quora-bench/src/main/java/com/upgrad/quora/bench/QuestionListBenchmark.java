@@ -0,0 +1,61 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.api.controller.QuestionController;
+import com.upgrad.quora.service.entity.Question;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the helpers of QuestionController which join the uuids and the contents of the listed questions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionListBenchmark {
+
+    @Param({"20", "100", "10000"})
+    private int questions;
+
+    private List<Question> questionList;
+
+    @Setup
+    public void setUp() {
+        questionList = new ArrayList<>(questions);
+        for (int i = 0; i < questions; i++) {
+            Question question = new Question();
+            question.setId(i);
+            question.setUuid(UUID.randomUUID().toString());
+            question.setContent("What is question number " + i + " about?");
+            question.setDate(ZonedDateTime.now());
+            questionList.add(question);
+        }
+    }
+
+    @Benchmark
+    public StringBuilder getUuIdString() {
+        return QuestionController.getUuIdString(questionList, new StringBuilder());
+    }
+
+    @Benchmark
+    public StringBuilder getContentsString() {
+        return QuestionController.getContentsString(questionList, new StringBuilder());
+    }
+}
@@ -0,0 +1,55 @@
+--Schema of quora.sql and of the migrations in quora-db, in the dialect of the embedded H2 database used by the DAO benchmarks
+CREATE TABLE USERS(id SERIAL PRIMARY KEY, uuid VARCHAR(200) NOT NULL, firstName VARCHAR(30) NOT NULL, lastName VARCHAR(30) NOT NULL, userName VARCHAR(30) UNIQUE NOT NULL, email VARCHAR(50) UNIQUE NOT NULL, password VARCHAR(255) NOT NULL, salt VARCHAR(200) NOT NULL, country VARCHAR(30), aboutMe VARCHAR(50), dob VARCHAR(30), role VARCHAR(30), contactNumber VARCHAR(30));
+CREATE TABLE USER_AUTH(id BIGSERIAL PRIMARY KEY, uuid VARCHAR(200) NOT NULL, user_id INTEGER NOT NULL, access_token VARCHAR(500) NOT NULL, expires_at TIMESTAMP NOT NULL, login_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, logout_at TIMESTAMP NULL, FOREIGN KEY (user_id) REFERENCES USERS(id) ON DELETE CASCADE);
+CREATE TABLE QUESTION(id SERIAL PRIMARY KEY, uuid VARCHAR(200) NOT NULL, content VARCHAR(500) NOT NULL, date TIMESTAMP NOT NULL, user_id INTEGER NOT NULL, FOREIGN KEY (user_id) REFERENCES USERS(id) ON DELETE CASCADE);
+CREATE TABLE ANSWER(id SERIAL PRIMARY KEY, uuid VARCHAR(200) NOT NULL, ans VARCHAR(255) NOT NULL, date TIMESTAMP NOT NULL, user_id INTEGER NOT NULL, question_id INTEGER NOT NULL, FOREIGN KEY (user_id) REFERENCES USERS(id) ON DELETE CASCADE, FOREIGN KEY (question_id) REFERENCES QUESTION(id) ON DELETE CASCADE);
+
+--V001__lookup_indexes.sql
+CREATE UNIQUE INDEX USERS_UUID_UK ON USERS(uuid);
+CREATE UNIQUE INDEX QUESTION_UUID_UK ON QUESTION(uuid);
+CREATE UNIQUE INDEX ANSWER_UUID_UK ON ANSWER(uuid);
+CREATE UNIQUE INDEX USER_AUTH_ACCESS_TOKEN_UK ON USER_AUTH(access_token);
+CREATE INDEX USER_AUTH_UUID_IDX ON USER_AUTH(uuid);
+CREATE INDEX USER_AUTH_LOGOUT_AT_IDX ON USER_AUTH(logout_at);
+CREATE INDEX USER_AUTH_USER_ID_IDX ON USER_AUTH(user_id);
+CREATE INDEX ANSWER_QUESTION_ID_IDX ON ANSWER(question_id);
+CREATE INDEX ANSWER_USER_ID_IDX ON ANSWER(user_id);
+
+--V002__question_keyset_indexes.sql
+CREATE INDEX QUESTION_DATE_ID_IDX ON QUESTION(date DESC, id DESC);
+CREATE INDEX QUESTION_USER_ID_DATE_ID_IDX ON QUESTION(user_id, date DESC, id DESC);
+
+--V003__pooled_id_sequences.sql
+CREATE SEQUENCE USERS_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE USER_AUTH_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE QUESTION_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE ANSWER_ID_SEQ INCREMENT BY 50;
+
+--V005__question_answer_activity.sql
+ALTER TABLE QUESTION ADD COLUMN answer_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE QUESTION ADD COLUMN last_answer_at TIMESTAMP NULL;
+CREATE INDEX QUESTION_ANSWER_COUNT_ID_IDX ON QUESTION(answer_count DESC, id DESC);
+CREATE INDEX QUESTION_LAST_ANSWER_AT_ID_IDX ON QUESTION(last_answer_at DESC, id DESC);
+
+--V006__answer_question_keyset_index.sql
+CREATE INDEX ANSWER_QUESTION_ID_DATE_ID_IDX ON ANSWER(question_id, date, id);
+DROP INDEX ANSWER_QUESTION_ID_IDX;
+
+--V007__question_answer_versions.sql
+ALTER TABLE QUESTION ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE ANSWER ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE QUESTION ADD COLUMN answers_version INTEGER NOT NULL DEFAULT 0;
+
+--V009__user_auth_token_digest.sql
+ALTER TABLE USER_AUTH ADD COLUMN access_token_digest VARBINARY(32) NOT NULL;
+ALTER TABLE USER_AUTH ALTER COLUMN access_token SET NULL;
+CREATE UNIQUE INDEX USER_AUTH_ACCESS_TOKEN_DIGEST_UK ON USER_AUTH(access_token_digest);
+DROP INDEX USER_AUTH_ACCESS_TOKEN_UK;
+
+--V010__user_revocations.sql
+CREATE TABLE USER_REVOCATION(id BIGSERIAL PRIMARY KEY, user_uuid VARCHAR(200) NOT NULL, revoked_at TIMESTAMP NOT NULL);
+CREATE INDEX USER_REVOCATION_REVOKED_AT_IDX ON USER_REVOCATION(revoked_at);
+
+--V011__user_auth_revoked_at.sql
+ALTER TABLE USER_AUTH ADD COLUMN revoked_at TIMESTAMP NULL;
+CREATE INDEX USER_AUTH_REVOKED_AT_IDX ON USER_AUTH(revoked_at);
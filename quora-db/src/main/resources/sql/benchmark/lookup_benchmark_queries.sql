@@ -0,0 +1,24 @@
+--The lookups of UserDao, QuestionDao and AnswerDao, each for a row in the middle of the QUORA_BENCH tables
+--The "Execution Time" of every plan is the lookup latency
+SET search_path TO QUORA_BENCH;
+
+--UserDao.getUserByUuid
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM USERS WHERE uuid = 'user-uuid-' || (@bench.rows@ / 2);
+
+--UserDao.getUserAuthToken
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM USER_AUTH WHERE access_token_digest = sha256(convert_to('token.' || md5((@bench.rows@ / 2)::text) || md5('payload' || (@bench.rows@ / 2)) || '.' || md5('signature' || (@bench.rows@ / 2)), 'UTF8'));
+
+--QuestionDao.getQuestionsPage, a page in the middle of the listing
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM QUESTION WHERE date <= (SELECT date FROM QUESTION WHERE id = @bench.rows@ / 2) AND (date < (SELECT date FROM QUESTION WHERE id = @bench.rows@ / 2) OR id < @bench.rows@ / 2) ORDER BY date DESC, id DESC LIMIT 21;
+
+--QuestionDao.getQuestion
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM QUESTION WHERE uuid = 'question-uuid-' || (@bench.rows@ / 2);
+
+--QuestionDao.getAllQuestionsForUser
+EXPLAIN (ANALYZE, BUFFERS) SELECT q.* FROM QUESTION q JOIN USERS u ON u.id = q.user_id WHERE u.uuid = 'user-uuid-' || (@bench.rows@ / 2);
+
+--AnswerDao.getAnswerForUuId
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM ANSWER WHERE uuid = 'answer-uuid-' || (@bench.rows@ / 2);
+
+--AnswerDao.getAnswersForQuestion
+EXPLAIN (ANALYZE, BUFFERS) SELECT a.* FROM ANSWER a JOIN QUESTION q ON q.id = a.question_id WHERE q.uuid = 'question-uuid-' || (@bench.rows@ / 2);
@@ -0,0 +1,32 @@
+--Creates the QUORA_BENCH schema with @bench.rows@ rows in each of USERS, USER_AUTH, QUESTION and ANSWER
+--The tables copy the columns of the application tables but none of their indexes, the migrations are applied to them by the benchmark profile
+DROP SCHEMA IF EXISTS QUORA_BENCH CASCADE;
+CREATE SCHEMA QUORA_BENCH;
+SET search_path TO QUORA_BENCH;
+
+CREATE TABLE USERS (LIKE public.USERS INCLUDING DEFAULTS);
+CREATE TABLE USER_AUTH (LIKE public.USER_AUTH INCLUDING DEFAULTS);
+CREATE TABLE USER_AUTH_ARCHIVE (LIKE public.USER_AUTH_ARCHIVE);
+CREATE TABLE QUESTION (LIKE public.QUESTION INCLUDING DEFAULTS);
+CREATE TABLE ANSWER (LIKE public.ANSWER INCLUDING DEFAULTS);
+
+INSERT INTO USERS(id, uuid, firstname, lastname, username, email, password, salt, country, aboutme, dob, role, contactnumber)
+    SELECT g, 'user-uuid-' || g, 'first' || g, 'last' || g, 'user' || g, 'user' || g || '@quora.io', md5(g::text), md5('salt' || g), 'country', 'about me', '01-01-1990', 'nonadmin', '9999999999'
+    FROM generate_series(1, @bench.rows@) g;
+
+INSERT INTO USER_AUTH(id, uuid, user_id, access_token_digest, expires_at, login_at, logout_at)
+    SELECT g, 'user-uuid-' || g, g, sha256(convert_to('token.' || md5(g::text) || md5('payload' || g) || '.' || md5('signature' || g), 'UTF8')), now() + interval '8 hours', now(), null
+    FROM generate_series(1, @bench.rows@) g;
+
+INSERT INTO QUESTION(id, uuid, content, date, user_id)
+    SELECT g, 'question-uuid-' || g, 'question content ' || g, now() - (g || ' seconds')::interval, 1 + (g * 7919) % @bench.rows@
+    FROM generate_series(1, @bench.rows@) g;
+
+INSERT INTO ANSWER(id, uuid, ans, date, user_id, question_id)
+    SELECT g, 'answer-uuid-' || g, 'answer ' || g, now() - (g || ' seconds')::interval, 1 + (g * 104729) % @bench.rows@, 1 + (g * 7919) % @bench.rows@
+    FROM generate_series(1, @bench.rows@) g;
+
+ANALYZE USERS;
+ANALYZE USER_AUTH;
+ANALYZE QUESTION;
+ANALYZE ANSWER;
@@ -0,0 +1,20 @@
+--SCHEMA_VERSION table records the migrations which have been applied to the database
+CREATE TABLE IF NOT EXISTS SCHEMA_VERSION(version INTEGER PRIMARY KEY, description VARCHAR(200) NOT NULL, applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP);
+
+--Every user, question and answer is looked up by its uuid, which has to be unique
+CREATE UNIQUE INDEX IF NOT EXISTS USERS_UUID_UK ON USERS(uuid);
+CREATE UNIQUE INDEX IF NOT EXISTS QUESTION_UUID_UK ON QUESTION(uuid);
+CREATE UNIQUE INDEX IF NOT EXISTS ANSWER_UUID_UK ON ANSWER(uuid);
+
+--Every authorized request looks up its session by the access token, the uuid of USER_AUTH is the uuid of the user and is shared by all the sessions of a user
+CREATE UNIQUE INDEX IF NOT EXISTS USER_AUTH_ACCESS_TOKEN_UK ON USER_AUTH(access_token);
+CREATE INDEX IF NOT EXISTS USER_AUTH_UUID_IDX ON USER_AUTH(uuid);
+CREATE INDEX IF NOT EXISTS USER_AUTH_LOGOUT_AT_IDX ON USER_AUTH(logout_at) WHERE logout_at IS NOT NULL;
+
+--Foreign key columns are indexed for the lookups by user and question and for the cascading deletes
+CREATE INDEX IF NOT EXISTS USER_AUTH_USER_ID_IDX ON USER_AUTH(user_id);
+CREATE INDEX IF NOT EXISTS QUESTION_USER_ID_IDX ON QUESTION(user_id);
+CREATE INDEX IF NOT EXISTS ANSWER_QUESTION_ID_IDX ON ANSWER(question_id);
+CREATE INDEX IF NOT EXISTS ANSWER_USER_ID_IDX ON ANSWER(user_id);
+
+INSERT INTO SCHEMA_VERSION(version, description) VALUES (1, 'lookup indexes') ON CONFLICT (version) DO NOTHING;
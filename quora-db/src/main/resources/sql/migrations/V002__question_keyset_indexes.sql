@@ -0,0 +1,8 @@
+--Question listings are paginated by (date, id), newest first, these indexes return every page with a single index range scan
+CREATE INDEX IF NOT EXISTS QUESTION_DATE_ID_IDX ON QUESTION(date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS QUESTION_USER_ID_DATE_ID_IDX ON QUESTION(user_id, date DESC, id DESC);
+
+--The foreign key lookups of QUESTION.user_id are served by QUESTION_USER_ID_DATE_ID_IDX
+DROP INDEX IF EXISTS QUESTION_USER_ID_IDX;
+
+INSERT INTO SCHEMA_VERSION(version, description) VALUES (2, 'question keyset indexes') ON CONFLICT (version) DO NOTHING;
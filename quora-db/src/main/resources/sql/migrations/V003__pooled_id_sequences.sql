@@ -0,0 +1,9 @@
+--Hibernate allocates the ids of users, sessions, questions and answers in blocks of 50 (pooled optimizer, allocationSize = 50 in the entities)
+--so that the inserts of a transaction can be sent as one JDBC batch. Every nextval reserves the block of 50 ids ending at the returned value,
+--hence inserts which take their id from the column default stay clear of the blocks used by hibernate.
+ALTER SEQUENCE USERS_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE USER_AUTH_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE QUESTION_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE ANSWER_ID_SEQ INCREMENT BY 50;
+
+INSERT INTO SCHEMA_VERSION(version, description) VALUES (3, 'pooled id sequences') ON CONFLICT (version) DO NOTHING;
@@ -0,0 +1,19 @@
+--The questions and answers are searched by the english full text search vectors of their content, kept current by triggers on insert and on update of the content
+ALTER TABLE QUESTION ADD COLUMN IF NOT EXISTS search_vector TSVECTOR;
+ALTER TABLE ANSWER ADD COLUMN IF NOT EXISTS search_vector TSVECTOR;
+
+DROP TRIGGER IF EXISTS QUESTION_SEARCH_VECTOR_TRG ON QUESTION;
+CREATE TRIGGER QUESTION_SEARCH_VECTOR_TRG BEFORE INSERT OR UPDATE OF content ON QUESTION
+    FOR EACH ROW EXECUTE PROCEDURE tsvector_update_trigger(search_vector, 'pg_catalog.english', content);
+DROP TRIGGER IF EXISTS ANSWER_SEARCH_VECTOR_TRG ON ANSWER;
+CREATE TRIGGER ANSWER_SEARCH_VECTOR_TRG BEFORE INSERT OR UPDATE OF ans ON ANSWER
+    FOR EACH ROW EXECUTE PROCEDURE tsvector_update_trigger(search_vector, 'pg_catalog.english', ans);
+
+UPDATE QUESTION SET search_vector = to_tsvector('pg_catalog.english', content) WHERE search_vector IS NULL;
+UPDATE ANSWER SET search_vector = to_tsvector('pg_catalog.english', ans) WHERE search_vector IS NULL;
+
+--The matching questions and answers of a search are found with a single GIN index scan per table
+CREATE INDEX IF NOT EXISTS QUESTION_SEARCH_VECTOR_IDX ON QUESTION USING GIN(search_vector);
+CREATE INDEX IF NOT EXISTS ANSWER_SEARCH_VECTOR_IDX ON ANSWER USING GIN(search_vector);
+
+INSERT INTO SCHEMA_VERSION(version, description) VALUES (4, 'content search vectors') ON CONFLICT (version) DO NOTHING;
@@ -0,0 +1,15 @@
+--Number of answers and date of the newest answer of every question, kept up to date by the answer create and delete paths,
+--so that the questions can be listed with their answer counts, most answered or most recently answered first, without reading ANSWER
+ALTER TABLE QUESTION ADD COLUMN IF NOT EXISTS answer_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE QUESTION ADD COLUMN IF NOT EXISTS last_answer_at TIMESTAMP NULL;
+
+UPDATE QUESTION q SET answer_count = activity.answer_count, last_answer_at = activity.last_answer_at
+    FROM (SELECT question_id, COUNT(*) AS answer_count, MAX(date) AS last_answer_at FROM ANSWER GROUP BY question_id) activity
+    WHERE activity.question_id = q.id AND (q.answer_count <> activity.answer_count OR q.last_answer_at IS DISTINCT FROM activity.last_answer_at);
+
+--The most answered and the recently active listings are paginated by (answer_count, id) and (last_answer_at, id) like the other question listings,
+--only the questions having answers are listed as recently active
+CREATE INDEX IF NOT EXISTS QUESTION_ANSWER_COUNT_ID_IDX ON QUESTION(answer_count DESC, id DESC);
+CREATE INDEX IF NOT EXISTS QUESTION_LAST_ANSWER_AT_ID_IDX ON QUESTION(last_answer_at DESC, id DESC) WHERE last_answer_at IS NOT NULL;
+
+INSERT INTO SCHEMA_VERSION(version, description) VALUES (5, 'question answer activity') ON CONFLICT (version) DO NOTHING;
@@ -0,0 +1,7 @@
+--The answers of a question are paginated by (date, id), oldest first, this index returns every page with a single index range scan
+CREATE INDEX IF NOT EXISTS ANSWER_QUESTION_ID_DATE_ID_IDX ON ANSWER(question_id, date, id);
+
+--The foreign key lookups of ANSWER.question_id are served by ANSWER_QUESTION_ID_DATE_ID_IDX
+DROP INDEX IF EXISTS ANSWER_QUESTION_ID_IDX;
+
+INSERT INTO SCHEMA_VERSION(version, description) VALUES (6, 'answer question keyset index') ON CONFLICT (version) DO NOTHING;
@@ -0,0 +1,10 @@
+--Versions of the questions and answers, incremented by every update of the row, so that a stale edit is detected
+--and not written over a newer one
+ALTER TABLE QUESTION ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE ANSWER ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 0;
+
+--Version of the answers of every question, incremented by the answer create, edit and delete paths,
+--so that the question and its answers are validated with the question row only, without reading ANSWER
+ALTER TABLE QUESTION ADD COLUMN IF NOT EXISTS answers_version INTEGER NOT NULL DEFAULT 0;
+
+INSERT INTO SCHEMA_VERSION(version, description) VALUES (7, 'question answer versions') ON CONFLICT (version) DO NOTHING;
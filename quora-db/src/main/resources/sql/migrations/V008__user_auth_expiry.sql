@@ -0,0 +1,15 @@
+--The session reaper removes the sessions of USER_AUTH in the order of their expiry, a batch at a time
+CREATE INDEX IF NOT EXISTS USER_AUTH_EXPIRES_AT_IDX ON USER_AUTH(expires_at);
+
+--Expired sessions are moved here instead of being deleted when quora.auth.session-reaper.archive is set
+CREATE TABLE IF NOT EXISTS USER_AUTH_ARCHIVE(
+	ID BIGINT NOT NULL,
+	uuid VARCHAR(200) NOT NULL,
+	USER_ID INTEGER NOT NULL,
+	ACCESS_TOKEN VARCHAR(500) NOT NULL,
+	EXPIRES_AT TIMESTAMP NOT NULL,
+	LOGIN_AT TIMESTAMP NOT NULL,
+	LOGOUT_AT TIMESTAMP NULL
+);
+
+INSERT INTO SCHEMA_VERSION(version, description) VALUES (8, 'user auth expiry') ON CONFLICT (version) DO NOTHING;
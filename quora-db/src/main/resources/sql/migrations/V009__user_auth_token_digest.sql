@@ -0,0 +1,19 @@
+--Sessions are stored and looked up by the SHA-256 digest of their access token, 32 bytes whatever the length of the token,
+--and the access tokens themselves are not stored any more. The ACCESS_TOKEN column is left empty.
+ALTER TABLE USER_AUTH ADD COLUMN IF NOT EXISTS ACCESS_TOKEN_DIGEST BYTEA;
+ALTER TABLE USER_AUTH ALTER COLUMN ACCESS_TOKEN DROP NOT NULL;
+UPDATE USER_AUTH SET ACCESS_TOKEN_DIGEST = sha256(convert_to(ACCESS_TOKEN, 'UTF8')), ACCESS_TOKEN = NULL WHERE ACCESS_TOKEN IS NOT NULL;
+ALTER TABLE USER_AUTH ALTER COLUMN ACCESS_TOKEN_DIGEST SET NOT NULL;
+
+--The unique index of the digests replaces the unique index of the access tokens created by V001.
+--A partitioned USER_AUTH has its own unique index under the same name, see user_auth_partitioning.sql, which includes
+--the partition key expires_at as every unique index of a partitioned table must: there the database only rejects
+--a digest stored twice with the same expiry, and the uniqueness of the digests rests on the tokens being generated unique.
+CREATE UNIQUE INDEX IF NOT EXISTS USER_AUTH_ACCESS_TOKEN_DIGEST_UK ON USER_AUTH(access_token_digest);
+DROP INDEX IF EXISTS USER_AUTH_ACCESS_TOKEN_UK;
+
+ALTER TABLE USER_AUTH_ARCHIVE ADD COLUMN IF NOT EXISTS ACCESS_TOKEN_DIGEST BYTEA;
+ALTER TABLE USER_AUTH_ARCHIVE ALTER COLUMN ACCESS_TOKEN DROP NOT NULL;
+UPDATE USER_AUTH_ARCHIVE SET ACCESS_TOKEN_DIGEST = sha256(convert_to(ACCESS_TOKEN, 'UTF8')), ACCESS_TOKEN = NULL WHERE ACCESS_TOKEN IS NOT NULL;
+
+INSERT INTO SCHEMA_VERSION(version, description) VALUES (9, 'user auth token digest') ON CONFLICT (version) DO NOTHING;
@@ -0,0 +1,11 @@
+--Every token issued to a user before REVOKED_AT is rejected, e.g. once the user is deleted or the role of the user changes.
+--The rows are read by the revocation refresh of every server, they outlive the user and its USER_AUTH rows,
+--hence there is no foreign key to USERS. They are removed once every token they apply to has expired.
+CREATE TABLE IF NOT EXISTS USER_REVOCATION(
+	ID BIGSERIAL PRIMARY KEY,
+	USER_UUID VARCHAR(200) NOT NULL,
+	REVOKED_AT TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS USER_REVOCATION_REVOKED_AT_IDX ON USER_REVOCATION(revoked_at);
+
+INSERT INTO SCHEMA_VERSION(version, description) VALUES (10, 'user revocations') ON CONFLICT (version) DO NOTHING;
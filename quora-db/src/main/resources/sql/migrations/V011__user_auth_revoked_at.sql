@@ -0,0 +1,8 @@
+--REVOKED_AT is the time the sign out was written to USER_AUTH, as opposed to LOGOUT_AT, the time the user signed out.
+--The write-behind queue may write a sign out long after it happened, e.g. after a failed flush or a restart,
+--hence the revocation refresh of the other servers polls REVOKED_AT, which only grows as the sign outs are written.
+ALTER TABLE USER_AUTH ADD COLUMN IF NOT EXISTS REVOKED_AT TIMESTAMP NULL;
+UPDATE USER_AUTH SET REVOKED_AT = LOGOUT_AT WHERE LOGOUT_AT IS NOT NULL AND REVOKED_AT IS NULL;
+CREATE INDEX IF NOT EXISTS USER_AUTH_REVOKED_AT_IDX ON USER_AUTH(revoked_at) WHERE revoked_at IS NOT NULL;
+
+INSERT INTO SCHEMA_VERSION(version, description) VALUES (11, 'user auth revoked at') ON CONFLICT (version) DO NOTHING;
@@ -0,0 +1,57 @@
+--Converts USER_AUTH into a table partitioned by the month of expiry of the sessions (PostgreSQL 11 or newer),
+--so that the session reaper drops the expired sessions a month at a time instead of deleting them row by row.
+--Apply after the migrations (V011 included) with the partition-sessions profile, then set quora.auth.session-reaper.partitions.enabled.
+--Nothing is done if USER_AUTH is partitioned already. Statements are separated by lines holding a single slash.
+--Every unique index of a partitioned table includes the partition key, hence the primary key is (id, expires_at)
+--and the access token digest index is unique per expiry; ids and digests stay unique as they are generated.
+--The indexes keep the names given by the migrations. Flyway applies every migration once, so V001, which creates
+--a unique index of the access tokens that a partitioned table cannot hold, is never applied to the partitioned table.
+DO $$
+DECLARE
+	partition_month DATE;
+BEGIN
+	IF EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = 'user_auth') THEN
+		RETURN;
+	END IF;
+
+	ALTER TABLE USER_AUTH RENAME TO USER_AUTH_UNPARTITIONED;
+
+	CREATE TABLE USER_AUTH(
+		ID BIGINT NOT NULL DEFAULT nextval('user_auth_id_seq'),
+		uuid VARCHAR(200) NOT NULL,
+		USER_ID INTEGER NOT NULL,
+		ACCESS_TOKEN VARCHAR(500) NULL,
+		ACCESS_TOKEN_DIGEST BYTEA NOT NULL,
+		EXPIRES_AT TIMESTAMP NOT NULL,
+		LOGIN_AT TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+		LOGOUT_AT TIMESTAMP NULL,
+		REVOKED_AT TIMESTAMP NULL,
+		PRIMARY KEY (ID, EXPIRES_AT)
+	) PARTITION BY RANGE (EXPIRES_AT);
+	--the id sequence would be dropped with the old table otherwise
+	ALTER SEQUENCE USER_AUTH_ID_SEQ OWNED BY USER_AUTH.ID;
+
+	--one partition per month, from the oldest session to two months ahead, the session reaper creates the later ones
+	FOR partition_month IN
+		SELECT generate_series(date_trunc('month', COALESCE(MIN(EXPIRES_AT), now())), date_trunc('month', now()) + interval '2 months', interval '1 month')::date
+		FROM USER_AUTH_UNPARTITIONED
+	LOOP
+		EXECUTE format('CREATE TABLE %I PARTITION OF USER_AUTH FOR VALUES FROM (%L) TO (%L)',
+			'user_auth_p' || to_char(partition_month, 'YYYYMM'), partition_month, (partition_month + interval '1 month')::date);
+	END LOOP;
+	--sessions which fall into no monthly partition, removed row by row by the session reaper
+	CREATE TABLE USER_AUTH_DEFAULT PARTITION OF USER_AUTH DEFAULT;
+
+	INSERT INTO USER_AUTH(ID, uuid, USER_ID, ACCESS_TOKEN_DIGEST, EXPIRES_AT, LOGIN_AT, LOGOUT_AT, REVOKED_AT)
+		SELECT ID, uuid, USER_ID, ACCESS_TOKEN_DIGEST, EXPIRES_AT, LOGIN_AT, LOGOUT_AT, REVOKED_AT FROM USER_AUTH_UNPARTITIONED;
+	DROP TABLE USER_AUTH_UNPARTITIONED;
+
+	ALTER TABLE USER_AUTH ADD CONSTRAINT FK_USER_AUTH_USER_ID FOREIGN KEY(USER_ID) REFERENCES USERS(ID) ON DELETE CASCADE;
+	CREATE UNIQUE INDEX USER_AUTH_ACCESS_TOKEN_DIGEST_UK ON USER_AUTH(access_token_digest, expires_at);
+	CREATE INDEX USER_AUTH_UUID_IDX ON USER_AUTH(uuid);
+	CREATE INDEX USER_AUTH_LOGOUT_AT_IDX ON USER_AUTH(logout_at) WHERE logout_at IS NOT NULL;
+	CREATE INDEX USER_AUTH_REVOKED_AT_IDX ON USER_AUTH(revoked_at) WHERE revoked_at IS NOT NULL;
+	CREATE INDEX USER_AUTH_USER_ID_IDX ON USER_AUTH(user_id);
+	CREATE INDEX USER_AUTH_EXPIRES_AT_IDX ON USER_AUTH(expires_at);
+END $$
+/
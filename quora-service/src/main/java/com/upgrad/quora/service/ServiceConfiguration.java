@@ -1,15 +1,44 @@
 package com.upgrad.quora.service;
 
 
+import com.upgrad.quora.service.business.JwtProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
  * Enabling the component scan and entity scan of classes in the below mentioned "com.upgrad.quora.service" and "com.upgrad.quora.service.entity" packages respectively.
+ * Scheduling is enabled for the background jobs of the service layer, which run on a pool of scheduler threads:
+ * with the single thread of the default scheduler, a long run of the session reaper would hold back the flushes
+ * of the session write-behind queue and the refreshes of the revoked tokens.
+ * Setting quora.scheduling.enabled to false turns every background job off, e.g. for the tests.
  */
 @Configuration
+@EnableConfigurationProperties(JwtProperties.class)
 @ComponentScan("com.upgrad.quora.service")
 @EntityScan("com.upgrad.quora.service.entity")
 public class ServiceConfiguration {
+
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(name = "quora.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+    static class SchedulingConfiguration {
+
+        /**
+         * Scheduler of the @Scheduled jobs, picked up by its name, one thread per job by default.
+         */
+        @Bean(destroyMethod = "shutdown")
+        public ThreadPoolTaskScheduler taskScheduler(@Value("${quora.scheduling.threads:4}") final int threads) {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setPoolSize(threads);
+            scheduler.setThreadNamePrefix("scheduler-");
+            return scheduler;
+        }
+    }
 }
@@ -1,15 +1,24 @@
 package com.upgrad.quora.service.business;/* Create by Amit Punia */
 
+import com.upgrad.quora.service.cache.EntityCacheEvictor;
+import com.upgrad.quora.service.cache.QuestionDetailCache;
+import com.upgrad.quora.service.cache.UserAuthTokenCache;
+import com.upgrad.quora.service.cache.UserProfileCache;
+import com.upgrad.quora.service.common.UserPrincipal;
+import com.upgrad.quora.service.dao.QuestionDao;
 import com.upgrad.quora.service.dao.UserDao;
-import com.upgrad.quora.service.entity.UserAuthEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.search.QuestionSearchIndex;
+import com.upgrad.quora.service.session.SessionWriteBehindQueue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class AdminBusinessService {
 
@@ -17,16 +26,63 @@ public class AdminBusinessService {
     private UserDao userDao;
 
     @Autowired
-    private AuthenticationBusinessService authenticationBusinessService;
+    private QuestionDao questionDao;
+
+    @Autowired
+    private UserAuthTokenCache userAuthTokenCache;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private StatelessTokenVerifier statelessTokenVerifier;
+
+    @Autowired
+    private EntityCacheEvictor entityCacheEvictor;
 
+    @Autowired
+    private QuestionSearchIndex questionSearchIndex;
+
+    @Autowired
+    private QuestionDetailCache questionDetailCache;
+
+    @Autowired
+    private SessionWriteBehindQueue sessionWriteBehindQueue;
+
+    /**
+     * method used for deleting a user, only an admin is allowed to delete users.
+     * The signed in admin comes with the request, hence the user to be deleted is the only user read.
+     *
+     * @param userid    uuid of the user to be deleted
+     * @param principal signed in user
+     * @return uuid of the deleted user
+     * @throws UserNotFoundException        if the user does not exist
+     * @throws AuthorizationFailedException if the signed in user is not an admin
+     */
     @Transactional(propagation = Propagation.REQUIRED)
-    public String deleteUser(final String userid , final String accessToken) throws UserNotFoundException, AuthorizationFailedException {
+    public String deleteUser(final String userid , final UserPrincipal principal) throws UserNotFoundException, AuthorizationFailedException {
 
-        UserEntity userEntity = authenticationBusinessService.getUser(userid,accessToken);
-        UserAuthEntity userAuthTokenEntity = userDao.getUserAuthToken(accessToken);
+        UserEntity deletedUser = userDao.getUserByUuid(userid);
+        if(deletedUser == null)
+        {
+            throw new UserNotFoundException("USR-001", "User with entered uuid does not exist .");
+        }
 
-        if(userAuthTokenEntity.getUser_id().getRole().equals("admin")){
-            return userDao.deleteUser(userDao.getUserByUuid(userid));
+        if(principal.isAdmin()){
+            //sessions of the deleted user must stop working right away
+            userAuthTokenCache.invalidateUser(userid);
+            statelessTokenVerifier.invalidateUser(userid);
+            sessionWriteBehindQueue.discardUser(userid);
+            userProfileCache.invalidate(userid);
+            List<Integer> answeredQuestionIds = questionDao.getQuestionIdsAnsweredByUser(deletedUser);
+            String deletedUserUuid = userDao.deleteUser(deletedUser);
+            //the answers of the user to the questions of other users are deleted by the database as well
+            questionDao.recountAnswers(answeredQuestionIds);
+            //the questions and answers of the user are deleted by the database
+            entityCacheEvictor.evictQuestionsAndAnswers();
+            questionSearchIndex.removeUser(deletedUser);
+            questionDetailCache.invalidateAll();
+            return deletedUserUuid;
         }
         else
         {
@@ -1,20 +1,26 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.cache.QuestionDetailCache;
 import com.upgrad.quora.service.dao.AnswerDao;
 import com.upgrad.quora.service.dao.QuestionDao;
 import com.upgrad.quora.service.entity.Answer;
 import com.upgrad.quora.service.entity.Question;
-import com.upgrad.quora.service.entity.UserAuthEntity;
 import com.upgrad.quora.service.exception.AnswerNotFoundException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.EditConflictException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
 import com.upgrad.quora.service.common.ActionType;
-import com.upgrad.quora.service.common.RoleType;
+import com.upgrad.quora.service.common.UserPrincipal;
+import com.upgrad.quora.service.common.RowCallback;
+import com.upgrad.quora.service.projection.AnswerSummary;
+import com.upgrad.quora.service.search.QuestionSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.util.List;
 
 @Service
@@ -26,9 +32,20 @@ public class AnswerService {
     @Autowired
     QuestionDao questionDao;
 
+    @Autowired
+    QuestionSearchIndex questionSearchIndex;
+
+    @Autowired
+    private QuestionDetailCache questionDetailCache;
+
     @Transactional(propagation = Propagation.REQUIRED)
     public Answer createAnswer(Answer answer) {
-        return answerDao.createAnswer(answer);
+        Answer createdAnswer = answerDao.createAnswer(answer);
+        //the answer count of the question is incremented in the database, the dao evicts the cached copy of the question
+        questionDao.addAnswers(answer.getQuestion().getId(), 1, answer.getDate());
+        questionSearchIndex.indexAnswer(createdAnswer);
+        questionDetailCache.invalidate(answer.getQuestion().getUuid());
+        return createdAnswer;
     }
 
     @Transactional(propagation = Propagation.REQUIRED)
@@ -42,13 +59,15 @@ public class AnswerService {
     }
 
     @Transactional(propagation = Propagation.REQUIRED)
-    public Answer isUserAnswerOwner(String answerUuId, UserAuthEntity authorizedUser, ActionType actionType) throws AnswerNotFoundException, AuthorizationFailedException {
+    public Answer isUserAnswerOwner(String answerUuId, UserPrincipal principal, ActionType actionType) throws AnswerNotFoundException, AuthorizationFailedException {
         Answer answer = answerDao.getAnswerForUuId(answerUuId);
 
         if (answer == null) {
             //if provided answer uuid is not present in database, then throw this exception
             throw new AnswerNotFoundException("ANS-001", "Entered answer uuid does not exist");
-        } else if (!authorizedUser.getUser_id().getUuid().equals(answer.getUser().getUuid())) {
+        }
+        final boolean owner = principal.isUser(answer.getUser());
+        if (!owner) {
             if (ActionType.EDIT_ANSWER.equals(actionType)) {
                 //if users dont match and action is for editing then throw exception with below message
                 throw new AuthorizationFailedException("ATHR-003", "Only the answer owner can edit the answer");
@@ -56,9 +75,7 @@ public class AnswerService {
                 //means we are in DELETE action and we should throw separate message for the exception
                 throw new AuthorizationFailedException("ATHR-003", "Only the answer owner or admin can delete the answer");
             }
-        } else if ((!authorizedUser.getUser_id().getRole().equals(RoleType.admin)
-                && !authorizedUser.getUser_id().getUuid().equals(answer.getUser().getUuid()))
-                && ActionType.DELETE_ANSWER.equals(actionType)) {
+        } else if (!principal.isAdmin() && !owner && ActionType.DELETE_ANSWER.equals(actionType)) {
             //In delete mode if role is not admin or the user is not owner of the answer then throw below exception
             throw new AuthorizationFailedException("ATHR-003", "Only the answer owner or admin can delete the answer");
         } else {
@@ -66,14 +83,34 @@ public class AnswerService {
         }
     }
 
-    @Transactional(propagation = Propagation.REQUIRED)
-    public Answer editAnswer(Answer answer) {
-        return answerDao.editAnswer(answer);
+    /**
+     * method used for editing an answer.
+     * The answers version of its question is incremented, so that the clients holding the answers of the question read them again.
+     *
+     * @param answer answer to be edited in database
+     * @return edited answer
+     * @throws EditConflictException if the answer has been edited by another request since it was read
+     */
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = EditConflictException.class)
+    public Answer editAnswer(Answer answer) throws EditConflictException {
+        Answer editedAnswer;
+        try {
+            editedAnswer = answerDao.editAnswer(answer);
+        } catch (OptimisticLockingFailureException e) {
+            throw new EditConflictException("ANS-002", "The answer has been edited by another request, read it again before editing it");
+        }
+        questionDao.changeAnswers(answer.getQuestion().getId());
+        questionSearchIndex.indexAnswer(editedAnswer);
+        questionDetailCache.invalidate(answer.getQuestion().getUuid());
+        return editedAnswer;
     }
 
     @Transactional(propagation = Propagation.REQUIRED)
     public void deleteAnswer(Answer answer) {
         answerDao.deleteAnswer(answer);
+        questionDao.removeAnswer(answer.getQuestion().getId());
+        questionSearchIndex.removeAnswer(answer);
+        questionDetailCache.invalidate(answer.getQuestion().getUuid());
     }
 
     @Transactional(propagation = Propagation.REQUIRED)
@@ -92,4 +129,32 @@ public class AnswerService {
             return answerList;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * method used for getting the question whose answers are to be exported.
+     *
+     * @param questionUuId uuid of the question
+     * @return Question object
+     * @throws InvalidQuestionException if the question does not exist
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Question getQuestionForAnswers(String questionUuId) throws InvalidQuestionException {
+        Question question = questionDao.getQuestion(questionUuId);
+        if (question == null) {
+            throw new InvalidQuestionException("QUES-001", "The question with entered uuid whose details are to be seen does not exist");
+        }
+        return question;
+    }
+
+    /**
+     * method used for streaming all the answers to a question to the callback, in a single read only transaction.
+     *
+     * @param question the question
+     * @param callback receives every answer
+     * @throws IOException if the callback fails to write an answer
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public void exportAnswersForQuestion(Question question, RowCallback<AnswerSummary> callback) throws IOException {
+        answerDao.exportAnswersForQuestion(question, callback);
+    }
+}
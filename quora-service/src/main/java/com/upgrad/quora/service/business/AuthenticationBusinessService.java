@@ -1,15 +1,15 @@
 package com.upgrad.quora.service.business;/* Created by Mansi Elhance */
 
+import com.upgrad.quora.service.cache.UserAuthTokenCache;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.UserAuthEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthenticationFailedException;
-import com.upgrad.quora.service.exception.AuthorizationFailedException;
-import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.session.SessionWriteBehindQueue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.ZonedDateTime;
 
@@ -24,30 +24,66 @@ public class AuthenticationBusinessService {
     @Autowired
     private PasswordCryptographyProvider cryptographyProvider;
 
-    @Transactional(propagation = Propagation.REQUIRED)
+    @Autowired
+    private JwtSigningKeyring jwtSigningKeyring;
+
+    @Autowired
+    private SessionWriteBehindQueue sessionWriteBehindQueue;
+
+    @Autowired
+    private UserAuthTokenCache userAuthTokenCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * method used for signing in a user.
+     * The password is hashed outside of any transaction, as the hashing may take seconds under load:
+     * the user is read, and a rehashed password written, in short transactions of their own,
+     * so that no database connection is held while the password is hashed.
+     *
+     * @param username username of the user
+     * @param password password of the user
+     * @return new session of the user
+     * @throws AuthenticationFailedException if the username does not exist or the password does not match
+     */
     public UserAuthEntity authenticate(final String username, final String password) throws AuthenticationFailedException{
 
+        final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        //taken before the user is read, a deletion of the user committed meanwhile keeps the new session out of the cache
+        final long cacheVersion = userAuthTokenCache.getVersion();
+
         //getting user by its entered email
-        UserEntity userEntity = userDao.getUserByUsername(username);
+        UserEntity userEntity = transaction.execute(status -> userDao.getUserByUsername(username));
 
         if (userEntity == null){
             throw new AuthenticationFailedException("ATH-001","This username does not exist.");
         }
 
-        final  String encryptedPassword = cryptographyProvider.encrypt(password, userEntity.getSalt());
-         if (encryptedPassword.equals(userEntity.getPassword())){
-            JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(encryptedPassword);
+         if (cryptographyProvider.matches(password, userEntity.getSalt(), userEntity.getPassword())){
+            JwtTokenProvider jwtTokenProvider = jwtSigningKeyring.getActiveProvider();
             UserAuthEntity userAuthEntity = new UserAuthEntity();
             userAuthEntity.setUser_id(userEntity);
 
             final ZonedDateTime now = ZonedDateTime.now();
-            final ZonedDateTime expiresAt = now.plusHours(8);
-            userAuthEntity.setAccess_token(jwtTokenProvider.generateToken(userEntity.getUuid(), now, expiresAt));
+            final ZonedDateTime expiresAt = now.plus(JwtTokenProvider.TOKEN_VALIDITY);
+            userAuthEntity.setAccess_token(jwtTokenProvider.generateToken(userEntity.getUuid(), userEntity.getUser_id(), userEntity.getRole(), now, expiresAt));
             userAuthEntity.setUuid(userEntity.getUuid());
             userAuthEntity.setLogin_at(now);
             userAuthEntity.setExpires_at(expiresAt);
-            userDao.createAuthToken(userAuthEntity);
-            userDao.updateUser(userEntity);
+
+            //hashes of an older version or with fewer iterations are upgraded transparently on sign in
+            if (cryptographyProvider.needsRehash(userEntity.getPassword())) {
+                userEntity.setPassword(cryptographyProvider.encrypt(password, userEntity.getSalt()));
+                transaction.execute(status -> {
+                    userDao.updateUser(userEntity);
+                    return null;
+                });
+            }
+
+            //the session is written to USER_AUTH by the write-behind queue, and served from the token cache meanwhile
+            sessionWriteBehindQueue.signIn(userAuthEntity);
+            userAuthTokenCache.put(userAuthEntity, cacheVersion);
 
             return userAuthEntity;
 
@@ -55,37 +91,4 @@ public class AuthenticationBusinessService {
             throw new AuthenticationFailedException("ATH-002","Password Failed");
         }
     }
-
-
-//  ----- For AdminController -----
-
-    // Controller calls this getUser method
-    @Transactional(propagation = Propagation.REQUIRED)
-    public UserEntity getUser(final String id , final String authorizedToken) throws AuthorizationFailedException, UserNotFoundException {
-
-        UserAuthEntity userAuth =  userDao.getUserAuthToken(authorizedToken);
-
-
-        if(userAuth == null)
-        {
-            throw new AuthorizationFailedException("ATHR-001","User has not signed in");
-        }
-        final ZonedDateTime signOutUserTime = userAuth.getLogout_at();
-
-        if(signOutUserTime!=null && userAuth!=null)
-        {
-            throw new AuthorizationFailedException("ATHR-002","User is signed out.Sign in first to get user details");
-        }
-        UserEntity user = userDao.getUserByUuid(id);
-
-        if(user==null)
-        {
-            throw new UserNotFoundException("USR-001", "User with entered uuid does not exist .");
-
-        }
-        else {
-            return user;
-        }
-    }
 }
-
@@ -0,0 +1,151 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.cache.QuestionDetailCache;
+import com.upgrad.quora.service.common.ImportItem;
+import com.upgrad.quora.service.common.ImportResult;
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.entity.Answer;
+import com.upgrad.quora.service.entity.Question;
+import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.search.QuestionSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service class for the bulk import of questions and answers migrated from other forums.
+ * Items are imported in chunks, every chunk in its own transaction, so that the inserts of a chunk
+ * are sent in JDBC batches and a failing chunk does not undo the chunks imported before it.
+ */
+@Service
+public class ContentImportService {
+
+    private static final int MAX_QUESTION_LENGTH = 500;
+
+    private static final int MAX_ANSWER_LENGTH = 255;
+
+    @Autowired
+    QuestionDao questionDao;
+
+    @Autowired
+    AnswerDao answerDao;
+
+    @Autowired
+    QuestionSearchIndex questionSearchIndex;
+
+    @Autowired
+    QuestionDetailCache questionDetailCache;
+
+    /**
+     * method used for importing one chunk of items in one transaction.
+     * Items which are not valid are rejected without affecting the other items of the chunk.
+     * The questions which are answered are looked up before any insert, so that the inserts are not split
+     * into several batches by the flushes done before queries.
+     * The written entities are detached at the end of the chunk, as the entity manager of a web request stays open
+     * for the whole import.
+     *
+     * @param user  user who imports the items, owner of the created questions and answers
+     * @param items items of the chunk
+     * @return result of every item, in the order of the items
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<ImportResult> importChunk(final UserEntity user, final List<ImportItem> items) {
+        questionDao.bypassSecondLevelCache();
+        final Map<String, Question> answeredQuestions = new HashMap<>();
+        for (ImportItem item : items) {
+            if (item.getQuestionUuid() != null && !answeredQuestions.containsKey(item.getQuestionUuid())) {
+                answeredQuestions.put(item.getQuestionUuid(), questionDao.getQuestion(item.getQuestionUuid()));
+            }
+        }
+
+        final ZonedDateTime now = ZonedDateTime.now();
+        final List<ImportResult> results = new ArrayList<>(items.size());
+        final Map<Integer, Integer> answerCounts = new LinkedHashMap<>();
+        for (ImportItem item : items) {
+            ImportResult rejection = validate(item);
+            if (rejection != null) {
+                results.add(rejection);
+                continue;
+            }
+            Question question;
+            if (item.getQuestionUuid() != null) {
+                question = answeredQuestions.get(item.getQuestionUuid());
+                if (question == null) {
+                    results.add(ImportResult.rejected(item.getLine(), "QUES-001", "Entered question uuid does not exist"));
+                    continue;
+                }
+            } else {
+                question = new Question();
+                question.setUuid(UUID.randomUUID().toString());
+                question.setContent(item.getContent());
+                question.setDate(now);
+                question.setUser(user);
+                questionDao.createQuestion(question);
+                questionSearchIndex.indexQuestion(question);
+            }
+            final List<String> answerUuids = new ArrayList<>();
+            if (item.getAnswers() != null) {
+                for (String content : item.getAnswers()) {
+                    Answer answer = new Answer();
+                    answer.setUuid(UUID.randomUUID().toString());
+                    answer.setAnswer(content);
+                    answer.setDate(now);
+                    answer.setUser(user);
+                    answer.setQuestion(question);
+                    answerDao.createAnswer(answer);
+                    questionSearchIndex.indexAnswer(answer);
+                    answerUuids.add(answer.getUuid());
+                }
+                if (!item.getAnswers().isEmpty()) {
+                    answerCounts.merge(question.getId(), item.getAnswers().size(), Integer::sum);
+                }
+            }
+            results.add(ImportResult.created(item.getLine(), question.getUuid(), answerUuids));
+        }
+        questionDao.flushAndClear();
+        //the answer counts are updated once per question, after the inserts have been sent in batches
+        for (Map.Entry<Integer, Integer> answerCount : answerCounts.entrySet()) {
+            questionDao.addAnswers(answerCount.getKey(), answerCount.getValue(), now);
+        }
+        for (String questionUuid : answeredQuestions.keySet()) {
+            questionDetailCache.invalidate(questionUuid);
+        }
+        return results;
+    }
+
+    /**
+     * method used for checking an item against the constraints of the QUESTION and ANSWER tables.
+     *
+     * @param item item to be checked
+     * @return result rejecting the item, or null if the item is valid
+     */
+    private static ImportResult validate(final ImportItem item) {
+        if ((item.getQuestionUuid() == null) == (item.getContent() == null)) {
+            return ImportResult.rejected(item.getLine(), "IMP-002", "Either the content of a new question or the uuid of an existing question is required");
+        }
+        if (item.getContent() != null && (item.getContent().trim().isEmpty() || item.getContent().length() > MAX_QUESTION_LENGTH)) {
+            return ImportResult.rejected(item.getLine(), "IMP-003", "The content of a question must have 1 to " + MAX_QUESTION_LENGTH + " characters");
+        }
+        if (item.getQuestionUuid() != null && (item.getAnswers() == null || item.getAnswers().isEmpty())) {
+            return ImportResult.rejected(item.getLine(), "IMP-004", "Answers are required for an existing question");
+        }
+        if (item.getAnswers() != null) {
+            for (String answer : item.getAnswers()) {
+                if (answer == null || answer.trim().isEmpty() || answer.length() > MAX_ANSWER_LENGTH) {
+                    return ImportResult.rejected(item.getLine(), "IMP-005", "The content of an answer must have 1 to " + MAX_ANSWER_LENGTH + " characters");
+                }
+            }
+        }
+        return null;
+    }
+}
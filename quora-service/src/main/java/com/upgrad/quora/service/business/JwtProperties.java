@@ -0,0 +1,41 @@
+package com.upgrad.quora.service.business;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration of the JWT signing keys, bound from the "quora.jwt" properties.
+ * To rotate keys, add the new key, make it the active key and remove the old key
+ * once the tokens signed with it have expired.
+ */
+@ConfigurationProperties(prefix = "quora.jwt")
+public class JwtProperties {
+
+    /**
+     * Id of the key used for signing new tokens.
+     */
+    private String activeKeyId;
+
+    /**
+     * Secrets of the keys accepted for verification, by key id.
+     */
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public void setActiveKeyId(String activeKeyId) {
+        this.activeKeyId = activeKeyId;
+    }
+
+    public Map<String, String> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(Map<String, String> keys) {
+        this.keys = keys;
+    }
+}
@@ -0,0 +1,114 @@
+package com.upgrad.quora.service.business;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server wide keyring of the keys used for signing and verifying JWT access tokens.
+ * Every token names its signing key in the "kid" header, so tokens signed with any key of the keyring
+ * can be verified while new tokens are signed with the active key only.
+ * The signing algorithm of every key is built once and kept in memory.
+ */
+@Component
+public class JwtSigningKeyring {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JwtSigningKeyring.class);
+
+    private final Map<String, JwtTokenProvider> providers = new ConcurrentHashMap<>();
+
+    private volatile JwtTokenProvider activeProvider;
+
+    public JwtSigningKeyring(final JwtProperties jwtProperties) {
+        //the server does not start without keys, a generated key could not be verified by the other servers
+        //and a key shipped with the configuration would let anybody sign tokens
+        if (jwtProperties.getKeys().isEmpty()) {
+            throw new IllegalStateException("No JWT signing keys configured under quora.jwt.keys, set QUORA_JWT_KEY_K1");
+        }
+        for (Map.Entry<String, String> key : jwtProperties.getKeys().entrySet()) {
+            if (key.getValue() == null || key.getValue().trim().isEmpty()) {
+                throw new IllegalStateException("The JWT signing key " + key.getKey() + " configured under quora.jwt.keys is empty");
+            }
+            addKey(key.getKey(), key.getValue());
+        }
+        final String activeKeyId = jwtProperties.getActiveKeyId() != null ? jwtProperties.getActiveKeyId() : providers.keySet().iterator().next();
+        LOG.info("Signing JWT access tokens with the key {}", activeKeyId);
+        activate(activeKeyId);
+    }
+
+    /**
+     * method used for getting the provider which signs new tokens.
+     *
+     * @return provider of the active key
+     */
+    public JwtTokenProvider getActiveProvider() {
+        return activeProvider;
+    }
+
+    /**
+     * method used for checking whether a token has been signed with one of the keys of the keyring.
+     *
+     * @param token decoded JWT token
+     * @return true if the key named in the "kid" header is known
+     */
+    public boolean isKnownKey(final DecodedJWT token) {
+        return token.getKeyId() != null && providers.containsKey(token.getKeyId());
+    }
+
+    /**
+     * method used for verifying a token with the key named in its "kid" header.
+     *
+     * @param accessToken JWT access token
+     * @return decoded JWT token
+     * @throws JWTVerificationException if the key is unknown or the token is not valid
+     */
+    public DecodedJWT verify(final String accessToken) throws JWTVerificationException {
+        DecodedJWT token = JwtTokenProvider.decodeToken(accessToken);
+        JwtTokenProvider provider = token == null || token.getKeyId() == null ? null : providers.get(token.getKeyId());
+        if (provider == null) {
+            throw new JWTVerificationException("Unknown signing key");
+        }
+        return provider.verifyToken(accessToken);
+    }
+
+    /**
+     * method used for adding a key which is accepted for verification.
+     *
+     * @param keyId  id of the key
+     * @param secret secret of the key
+     */
+    public void addKey(final String keyId, final String secret) {
+        providers.put(keyId, new JwtTokenProvider(keyId, secret));
+    }
+
+    /**
+     * method used for making a key of the keyring the key which signs new tokens.
+     *
+     * @param keyId id of the key
+     */
+    public void activate(final String keyId) {
+        JwtTokenProvider provider = providers.get(keyId);
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown JWT signing key " + keyId);
+        }
+        activeProvider = provider;
+    }
+
+    /**
+     * method used for removing a key once all the tokens it has signed have expired.
+     * The active key can not be removed.
+     *
+     * @param keyId id of the key
+     */
+    public void retire(final String keyId) {
+        if (activeProvider != null && keyId.equals(activeProvider.getKeyId())) {
+            throw new IllegalArgumentException("The active JWT signing key can not be retired");
+        }
+        providers.remove(keyId);
+    }
+}
@@ -1,34 +1,73 @@
 package com.upgrad.quora.service.business;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.upgrad.quora.service.common.GenericErrorCode;
 import com.upgrad.quora.service.common.UnexpectedException;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
-import java.time.temporal.ChronoField;
 import java.util.Date;
 import java.util.UUID;
 
 /**
  * This class is used in the project to provide JWT token after successful authentication
+ * and to verify the JWT tokens it has issued.
  */
 public class JwtTokenProvider {
     private static final String TOKEN_ISSUER = "https://quora.io";
 
+    /**
+     * Claim holding the database id of the user.
+     */
+    public static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * Claim holding the role of the user.
+     */
+    public static final String ROLE_CLAIM = "role";
+
+    /**
+     * Validity of the access tokens issued on sign in.
+     */
+    public static final Duration TOKEN_VALIDITY = Duration.ofHours(8);
+
+    private final String keyId;
+
     private final Algorithm algorithm;
 
+    private final JWTVerifier verifier;
+
     /**
-     * A constructor for JwtTokenProvider class which receives user password as an argument to be used in the signature part of JWT access token.
+     * A constructor for JwtTokenProvider class which receives a secret to be used in the signature part of JWT access token.
      */
     public JwtTokenProvider(final String secret) {
+        this(null, secret);
+    }
+
+    /**
+     * A constructor for JwtTokenProvider class which receives the id of the signing key, written to the "kid" header
+     * of every token, and the secret to be used in the signature part of JWT access token.
+     * The algorithm and the verifier are built once and reused for every token.
+     */
+    public JwtTokenProvider(final String keyId, final String secret) {
         try {
-            algorithm = Algorithm.HMAC512(secret);
+            this.keyId = keyId;
+            this.algorithm = Algorithm.HMAC512(secret);
+            this.verifier = JWT.require(algorithm).withIssuer(TOKEN_ISSUER).build();
         } catch (IllegalArgumentException e) {
             throw new UnexpectedException(GenericErrorCode.GEN_001);
         }
     }
 
+    public String getKeyId() {
+        return keyId;
+    }
+
 
     /**
      * This method receives uuid of the user, current time and expiry time of the access token.
@@ -41,14 +80,58 @@ public class JwtTokenProvider {
      * @return - generated JWT token
      */
     public String generateToken(final String userUuid, final ZonedDateTime issuedDateTime, final ZonedDateTime expiresDateTime) {
+        return generateToken(userUuid, null, null, issuedDateTime, expiresDateTime);
+    }
 
-        final Date issuedAt = new Date(issuedDateTime.getLong(ChronoField.INSTANT_SECONDS));
-        final Date expiresAt = new Date(expiresDateTime.getLong(ChronoField.INSTANT_SECONDS));
+    /**
+     * This method additionally stores the database id and the role of the user in the payload of the JWT token,
+     * so that the token can be verified without reading the user from the database.
+     */
+    /**
+     * @param userUuid        - uuid of the user
+     * @param userId          - database id of the user
+     * @param role            - role of the user
+     * @param issuedDateTime  - current time
+     * @param expiresDateTime - expiry time of the JWT token
+     * @return - generated JWT token
+     */
+    public String generateToken(final String userUuid, final Integer userId, final String role, final ZonedDateTime issuedDateTime, final ZonedDateTime expiresDateTime) {
+
+        final Date issuedAt = Date.from(issuedDateTime.toInstant());
+        final Date expiresAt = Date.from(expiresDateTime.toInstant());
 
         return JWT.create().withIssuer(TOKEN_ISSUER) //
-                .withKeyId(UUID.randomUUID().toString())
+                .withKeyId(keyId != null ? keyId : UUID.randomUUID().toString())
+                .withJWTId(UUID.randomUUID().toString())
                 .withAudience(userUuid) //
+                .withClaim(USER_ID_CLAIM, userId)
+                .withClaim(ROLE_CLAIM, role)
                 .withIssuedAt(issuedAt).withExpiresAt(expiresAt).sign(algorithm);
     }
 
+    /**
+     * This method verifies the signature, the issuer and the expiry of a JWT token.
+     *
+     * @param token - JWT token to be verified
+     * @return - decoded JWT token
+     * @throws JWTVerificationException if the token is not valid
+     */
+    public DecodedJWT verifyToken(final String token) throws JWTVerificationException {
+        return verifier.verify(token);
+    }
+
+    /**
+     * This method decodes a JWT token without verifying it.
+     *
+     * @param token - access token
+     * @return - decoded JWT token, or null if the access token is not a JWT token
+     */
+    public static DecodedJWT decodeToken(final String token) {
+        try {
+            return JWT.decode(token);
+        } catch (JWTDecodeException e) {
+            return null;
+        }
+    }
+
 }
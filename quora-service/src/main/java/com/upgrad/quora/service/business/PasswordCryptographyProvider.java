@@ -1,26 +1,96 @@
 package com.upgrad.quora.service.business;
 
 
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
 
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 
+/**
+ * This class hashes and verifies passwords.
+ * Hashes are computed on a dedicated, bounded pool of hashing threads instead of the request threads,
+ * and requests are rejected with GEN-002 when the pool is saturated, so that a burst of sign ins
+ * can not pin every request thread on the CPU.
+ * <p>
+ * A request which times out stops waiting, but its hash is not stopped: PBKDF2 does not check for interruption,
+ * so a hash which has started runs to its end and keeps its hashing thread, and only queued hashes are dropped.
+ * Under a sustained overload the pool hence keeps working on hashes nobody waits for any more. The queue capacity
+ * bounds that waste, and should stay below the number of hashes the pool completes within the hashing timeout,
+ * so that a queued hash can still finish before its request gives up.
+ * <p>
+ * Hashes are stored in a versioned format "$version$iterations$hash", so that the algorithm and the iteration
+ * count can be raised over time. Hashes without a version are the original 1000 iteration, 64 bit hashes.
+ * Hashes which are weaker than the current settings are reported by needsRehash, so that they can be
+ * upgraded on the next successful sign in.
+ */
 @Component
 public class PasswordCryptographyProvider {
 
     private static String SECRET_KEY_ALGORITHM = "PBKDF2WithHmacSHA512";
-    private static int HASHING_ITERATIONS = 1000;
-    private static int HASHING_KEY_LENGTH = 64;
+    private static int LEGACY_HASHING_ITERATIONS = 1000;
+    private static int LEGACY_HASHING_KEY_LENGTH = 64;
+    private static int HASHING_KEY_LENGTH = 512;
+    private static String HASH_VERSION = "2";
+    private static String HASH_SEPARATOR = "$";
     private final static char[] hexArray = "0123456789ABCDEF".toCharArray();
 
+    //SecretKeyFactory instances are not thread safe, hence every hashing thread keeps its own instances
+    private static final ThreadLocal<Map<String, SecretKeyFactory>> SECRET_KEY_FACTORIES = ThreadLocal.withInitial(HashMap::new);
+
+    private final int hashingIterations;
+
+    private final long hashingTimeoutMillis;
+
+    private final ThreadPoolExecutor hashingExecutor;
+
+    /**
+     * A constructor with the default settings: one hashing thread per processor, 64 queued requests at most.
+     */
+    public PasswordCryptographyProvider() {
+        this(210000, Runtime.getRuntime().availableProcessors(), 64, 5000);
+    }
+
+    @Autowired
+    public PasswordCryptographyProvider(@Value("${quora.password.hashing-iterations:210000}") final int hashingIterations,
+                                        @Value("${quora.password.hashing-threads:0}") final int hashingThreads,
+                                        @Value("${quora.password.hashing-queue-capacity:64}") final int hashingQueueCapacity,
+                                        @Value("${quora.password.hashing-timeout-ms:5000}") final long hashingTimeoutMillis) {
+        final int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.hashingIterations = hashingIterations;
+        this.hashingTimeoutMillis = hashingTimeoutMillis;
+        this.hashingExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hashingQueueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
     /**
      * This method generates Salt and hashed Password
      *
@@ -29,20 +99,125 @@ public class PasswordCryptographyProvider {
      */
     public String[] encrypt(final String password) {
         byte[] salt = generateSaltBytes();
-        byte[] hashedPassword = hashPassword(password.toCharArray(), salt);
-        return new String[]{getBase64EncodedBytesAsString(salt), bytesToHex(hashedPassword)};
+        return new String[]{getBase64EncodedBytesAsString(salt), encrypt(password, salt)};
     }
 
     /**
-     * This method re-generates hashed Password from raw-password and salt.
-     * This will be used during authentication.
+     * This method re-generates hashed Password from raw-password and salt with the current settings.
      *
      * @param password char array.
-     * @param salt     byte array.
+     * @param salt     base64 encoded salt.
+     * @return hashed password in the versioned format.
+     */
+    public String encrypt(final String password, final String salt) {
+        return encrypt(password, getBase64DecodedStringAsBytes(salt));
+    }
+
+    /**
+     * This method checks a raw-password against a stored hash of any version.
+     * This will be used during authentication.
+     *
+     * @param password   raw password
+     * @param salt       base64 encoded salt
+     * @param storedHash stored hashed password
+     * @return true if the password matches the stored hash
+     */
+    public boolean matches(final String password, final String salt, final String storedHash) {
+        final byte[] saltBytes;
+        final String expected;
+        try {
+            saltBytes = getBase64DecodedStringAsBytes(salt);
+        } catch (IllegalArgumentException e) {
+            //a malformed salt fails the credential check like a wrong password
+            return false;
+        }
+        if (!storedHash.startsWith(HASH_SEPARATOR)) {
+            expected = bytesToHex(hash(password, saltBytes, LEGACY_HASHING_ITERATIONS, LEGACY_HASHING_KEY_LENGTH));
+        } else {
+            final int iterations = getIterations(storedHash);
+            if (iterations <= 0) {
+                return false;
+            }
+            expected = format(iterations, hash(password, saltBytes, iterations, HASHING_KEY_LENGTH));
+        }
+        return MessageDigest.isEqual(expected.getBytes(), storedHash.getBytes());
+    }
+
+    /**
+     * This method tells whether a stored hash is weaker than the current settings and should be re-generated.
+     *
+     * @param storedHash stored hashed password
+     * @return true if the hash uses an older format or fewer iterations
+     */
+    public boolean needsRehash(final String storedHash) {
+        return !storedHash.startsWith(HASH_SEPARATOR) || getIterations(storedHash) < hashingIterations;
+    }
+
+    /**
+     * This method returns the number of hash requests waiting for a hashing thread.
+     *
+     * @return queue depth of the hashing pool
+     */
+    public int getQueuedHashCount() {
+        return hashingExecutor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdownNow();
+    }
+
+    private String encrypt(final String password, final byte[] salt) {
+        return format(hashingIterations, hash(password, salt, hashingIterations, HASHING_KEY_LENGTH));
+    }
+
+    /**
+     * This method reads the iteration count of a versioned hash.
+     *
+     * @return iteration count, or 0 if the hash is not of the current version or is malformed
+     */
+    private static int getIterations(final String storedHash) {
+        String[] parts = storedHash.split("\\" + HASH_SEPARATOR);
+        if (parts.length != 4 || !HASH_VERSION.equals(parts[1])) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String format(final int iterations, final byte[] hashedPassword) {
+        return HASH_SEPARATOR + HASH_VERSION + HASH_SEPARATOR + iterations + HASH_SEPARATOR + bytesToHex(hashedPassword);
+    }
+
+    /**
+     * This method runs the hashing on the hashing pool and waits for its result.
+     * Cancelling the hash on a timeout only removes it from the queue, a running hash completes regardless.
+     *
      * @return byte array of hashed password.
      */
-    public static String encrypt(final String password, String salt) {
-        return bytesToHex(hashPassword(password.toCharArray(), getBase64DecodedStringAsBytes(salt)));
+    private byte[] hash(final String password, final byte[] salt, final int iterations, final int keyLength) {
+        final Callable<byte[]> hashing = () -> hashPassword(password.toCharArray(), salt, iterations, keyLength);
+        final Future<byte[]> hashedPassword;
+        try {
+            hashedPassword = hashingExecutor.submit(hashing);
+        } catch (RejectedExecutionException e) {
+            throw new UnexpectedException(GenericErrorCode.GEN_002, e);
+        }
+        try {
+            return hashedPassword.get(hashingTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            hashedPassword.cancel(true);
+            throw new UnexpectedException(GenericErrorCode.GEN_002, e);
+        } catch (InterruptedException e) {
+            hashedPassword.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        } catch (ExecutionException e) {
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e.getCause());
+        }
     }
 
     /**
@@ -64,11 +239,16 @@ public class PasswordCryptographyProvider {
      * @param salt     byte array.
      * @return byte array of hashed password.
      */
-    private static byte[] hashPassword(final char[] password, final byte[] salt) {
+    private static byte[] hashPassword(final char[] password, final byte[] salt, final int iterations, final int keyLength) {
         try {
-            SecretKeyFactory skf = SecretKeyFactory.getInstance(SECRET_KEY_ALGORITHM);
-            PBEKeySpec spec = new PBEKeySpec(password, salt, HASHING_ITERATIONS, HASHING_KEY_LENGTH);
+            SecretKeyFactory skf = SECRET_KEY_FACTORIES.get().get(SECRET_KEY_ALGORITHM);
+            if (skf == null) {
+                skf = SecretKeyFactory.getInstance(SECRET_KEY_ALGORITHM);
+                SECRET_KEY_FACTORIES.get().put(SECRET_KEY_ALGORITHM, skf);
+            }
+            PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, keyLength);
             SecretKey key = skf.generateSecret(spec);
+            spec.clearPassword();
             byte[] res = key.getEncoded();
             return res;
         } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
@@ -94,5 +274,3 @@ public class PasswordCryptographyProvider {
         return Base64.getDecoder().decode(decode);
     }
 }
-
-
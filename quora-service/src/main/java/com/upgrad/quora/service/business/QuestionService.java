@@ -1,22 +1,44 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.cache.EntityCacheEvictor;
+import com.upgrad.quora.service.cache.QuestionDetailCache;
+import com.upgrad.quora.service.dao.AnswerDao;
 import com.upgrad.quora.service.dao.QuestionDao;
 import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.Answer;
 import com.upgrad.quora.service.entity.Question;
-import com.upgrad.quora.service.entity.UserAuthEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.EditConflictException;
+import com.upgrad.quora.service.exception.InvalidCursorException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
-import com.upgrad.quora.service.exception.QuestionNotFoundException;
+import com.upgrad.quora.service.exception.InvalidSearchException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
 import com.upgrad.quora.service.common.ActionType;
-import com.upgrad.quora.service.common.RoleType;
+import com.upgrad.quora.service.common.CountCursor;
+import com.upgrad.quora.service.common.Page;
+import com.upgrad.quora.service.common.PageCursor;
+import com.upgrad.quora.service.common.RowCallback;
+import com.upgrad.quora.service.common.SearchCursor;
+import com.upgrad.quora.service.projection.AnswerDetail;
+import com.upgrad.quora.service.projection.QuestionDetail;
+import com.upgrad.quora.service.projection.QuestionSearchHit;
+import com.upgrad.quora.service.projection.QuestionSummary;
+import com.upgrad.quora.service.projection.QuestionVersion;
+import com.upgrad.quora.service.common.UserPrincipal;
+import com.upgrad.quora.service.search.QuestionSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Service class for question related operations
@@ -30,6 +52,27 @@ public class QuestionService {
     @Autowired
     UserDao userDao;
 
+    @Autowired
+    AnswerDao answerDao;
+
+    @Autowired
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @Autowired
+    private QuestionSearchIndex questionSearchIndex;
+
+    @Autowired
+    private QuestionDetailCache questionDetailCache;
+
+    @Value("${quora.pagination.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${quora.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${quora.search.typeahead.default-limit:10}")
+    private int defaultTypeaheadLimit;
+
     /**
      * method used for creating question instance in database.
      *
@@ -38,69 +81,263 @@ public class QuestionService {
      */
     @Transactional(propagation = Propagation.REQUIRED)
     public Question createQuestion(Question question) {
-        return questionDao.createQuestion(question);
+        Question createdQuestion = questionDao.createQuestion(question);
+        questionSearchIndex.indexQuestion(createdQuestion);
+        return createdQuestion;
     }
 
     /**
-     * method used for getting questions for a authorized user
+     * method used for getting one page of the questions of a user, newest first.
      *
-     * @param uuId uuid of user whose questions are to be retrieved
-     * @return List of questions
+     * @param uuId   uuid of user whose questions are to be retrieved
+     * @param limit  requested page size, null for the default page size
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @return page of questions
+     * @throws UserNotFoundException  if the user does not exist
+     * @throws InvalidCursorException if the cursor is not valid
      */
     @Transactional(propagation = Propagation.REQUIRED)
-    public List<Question> getQuestionsForUser(final String uuId) throws QuestionNotFoundException, UserNotFoundException {
-        UserEntity user = userDao.getUser(uuId);
+    public Page<Question> getQuestionsForUser(final String uuId, final Integer limit, final String cursor) throws UserNotFoundException, InvalidCursorException {
+        UserEntity user = userDao.getUserByUuid(uuId);
         if (user == null) {
             throw new UserNotFoundException("USR-001", "User with entered uuid whose question details are to be seen does not exist");
         }
-        List<Question> questionList = questionDao.getAllQuestionsForUser(user.getUuid());
-        if (questionList == null) {
-            throw new QuestionNotFoundException("QUER-001", "No questions found for user");
-        } else {
-            return questionList;
-        }
+        final int pageSize = getPageSize(limit);
+        return toPage(questionDao.getQuestionsPageForUser(user, decodeCursor(cursor), pageSize + 1), pageSize);
     }
 
     /**
-     * methos used for getting all questions for any user.
+     * methos used for getting one page of all the questions, newest first.
      *
-     * @return List of questions
-     * @throws QuestionNotFoundException exceptionto indicate no questions are available in database
+     * @param limit  requested page size, null for the default page size
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @return page of questions
+     * @throws InvalidCursorException if the cursor is not valid
      */
     @Transactional(propagation = Propagation.REQUIRED)
-    public List<Question> getAllQuestions() throws QuestionNotFoundException {
-        List<Question> questionList = questionDao.getAllQuestions();
-        if (questionList == null) {
-            throw new QuestionNotFoundException("QUER-002", "No questions found for any user");
-        } else {
-            return questionList;
+    public Page<Question> getAllQuestions(final Integer limit, final String cursor) throws InvalidCursorException {
+        final int pageSize = getPageSize(limit);
+        return toPage(questionDao.getQuestionsPage(decodeCursor(cursor), pageSize + 1), pageSize);
+    }
+
+    /**
+     * method used for getting a question with its author and one page of its answers, oldest first.
+     * The question and the answers are read with a single query, and the page is kept in the question detail cache
+     * for a few seconds. No transaction is started, so that a page served from the cache takes no database connection.
+     *
+     * @param questionUuId uuid of the question
+     * @param limit        requested number of answers, null for the default page size
+     * @param cursor       cursor returned with the previous page of answers, null for the first page
+     * @return question with one page of its answers
+     * @throws InvalidQuestionException if the question does not exist
+     * @throws InvalidCursorException   if the cursor is not valid
+     */
+    public QuestionDetail getQuestionDetail(final String questionUuId, final Integer limit, final String cursor) throws InvalidQuestionException, InvalidCursorException {
+        final int pageSize = getPageSize(limit);
+        final String pageCursor = cursor == null || cursor.isEmpty() ? null : cursor;
+        QuestionDetail cachedQuestionDetail = questionDetailCache.get(questionUuId, pageSize, pageCursor);
+        if (cachedQuestionDetail != null) {
+            return cachedQuestionDetail;
+        }
+
+        final long cacheVersion = questionDetailCache.getVersion();
+        final List<Object[]> rows = questionDao.getQuestionWithAnswers(questionUuId, decodeCursor(pageCursor), pageSize + 1);
+        if (rows.isEmpty()) {
+            throw new InvalidQuestionException("QUES-001", "The question with entered uuid whose details are to be seen does not exist");
+        }
+        final List<AnswerDetail> answers = new ArrayList<>(Math.min(rows.size(), pageSize));
+        Answer lastAnswer = null;
+        String nextCursor = null;
+        for (Object[] row : rows) {
+            final Answer answer = (Answer) row[1];
+            if (answer == null) {
+                break;
+            }
+            if (answers.size() == pageSize) {
+                nextCursor = new PageCursor(lastAnswer.getDate(), lastAnswer.getId()).encode();
+                break;
+            }
+            final UserEntity author = (UserEntity) row[2];
+            answers.add(new AnswerDetail(answer.getUuid(), answer.getAnswer(), answer.getDate(), author.getUuid(), author.getUsername()));
+            lastAnswer = answer;
+        }
+        final Question question = (Question) rows.get(0)[0];
+        final QuestionDetail questionDetail = new QuestionDetail(question.getUuid(), question.getContent(), question.getDate(),
+                question.getUser().getUuid(), question.getUser().getUsername(), question.getAnswerCount(), new Page<>(answers, nextCursor),
+                new QuestionVersion(question.getVersion(), question.getAnswersVersion()));
+        questionDetailCache.put(pageSize, pageCursor, questionDetail, cacheVersion);
+        return questionDetail;
+    }
+
+    /**
+     * method used for getting the version of a question and of its answers, without reading the question and its answers.
+     *
+     * @param questionUuId uuid of the question
+     * @return versions of the question
+     * @throws InvalidQuestionException if the question does not exist
+     */
+    public QuestionVersion getQuestionVersion(final String questionUuId) throws InvalidQuestionException {
+        QuestionVersion questionVersion = questionDao.getQuestionVersion(questionUuId);
+        if (questionVersion == null) {
+            throw new InvalidQuestionException("QUES-001", "The question with entered uuid whose details are to be seen does not exist");
         }
+        return questionVersion;
+    }
+
+    /**
+     * method used for getting one page of all the questions with their answer counts, most answered first.
+     *
+     * @param limit  requested page size, null for the default page size
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @return page of questions
+     * @throws InvalidCursorException if the cursor is not valid
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Page<Question> getMostAnsweredQuestions(final Integer limit, final String cursor) throws InvalidCursorException {
+        final CountCursor countCursor = decodeCursor(cursor, CountCursor::decode);
+        final int pageSize = getPageSize(limit);
+        return toPage(questionDao.getMostAnsweredQuestionsPage(countCursor, pageSize + 1), pageSize,
+                last -> new CountCursor(last.getAnswerCount(), last.getId()).encode());
+    }
+
+    /**
+     * method used for getting one page of the answered questions with their answer counts, most recently answered first.
+     *
+     * @param limit  requested page size, null for the default page size
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @return page of questions
+     * @throws InvalidCursorException if the cursor is not valid
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Page<Question> getRecentlyActiveQuestions(final Integer limit, final String cursor) throws InvalidCursorException {
+        final int pageSize = getPageSize(limit);
+        return toPage(questionDao.getRecentlyActiveQuestionsPage(decodeCursor(cursor), pageSize + 1), pageSize,
+                last -> new PageCursor(last.getLastAnswerAt(), last.getId()).encode());
+    }
+
+    /**
+     * method used for getting one page of the questions whose content or answers match a search text, best match first.
+     * The search is served by the in memory index once it is loaded, and by the database until then.
+     *
+     * @param text   search text
+     * @param limit  requested page size, null for the default page size
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @return page of matching questions
+     * @throws InvalidSearchException if the search text is empty
+     * @throws InvalidCursorException if the cursor is not valid
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Page<QuestionSearchHit> searchQuestions(final String text, final Integer limit, final String cursor) throws InvalidSearchException, InvalidCursorException {
+        if (text == null || text.trim().isEmpty()) {
+            throw new InvalidSearchException("QUER-004", "Enter the words to search for");
+        }
+        final SearchCursor searchCursor = decodeCursor(cursor, SearchCursor::decode);
+        final int pageSize = getPageSize(limit);
+        final List<QuestionSearchHit> hits = questionSearchIndex.isReady()
+                ? questionSearchIndex.search(text, searchCursor, pageSize + 1)
+                : questionDao.searchQuestions(text, searchCursor, pageSize + 1);
+        if (hits.size() <= pageSize) {
+            return new Page<>(hits, null);
+        }
+        final List<QuestionSearchHit> pageHits = hits.subList(0, pageSize);
+        final QuestionSearchHit last = pageHits.get(pageSize - 1);
+        return new Page<>(pageHits, new SearchCursor(last.getRank(), last.getId()).encode());
+    }
+
+    /**
+     * method used for suggesting the questions matching the text typed so far, newest first.
+     * No question is suggested while the in memory index is loaded.
+     *
+     * @param text  text typed so far
+     * @param limit requested number of suggestions, null for the default number
+     * @return list of suggested questions
+     */
+    public List<QuestionSearchHit> typeahead(final String text, final Integer limit) {
+        if (text == null || text.trim().isEmpty() || !questionSearchIndex.isReady()) {
+            return Collections.emptyList();
+        }
+        final int suggestions = limit == null || limit <= 0 ? defaultTypeaheadLimit : Math.min(limit, maxPageSize);
+        return questionSearchIndex.typeahead(text, suggestions);
+    }
+
+    /**
+     * method used for streaming all the questions, newest first, to the callback in a single read only transaction.
+     *
+     * @param callback receives every question
+     * @throws IOException if the callback fails to write a question
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public void exportQuestions(final RowCallback<QuestionSummary> callback) throws IOException {
+        questionDao.exportQuestions(callback);
+    }
+
+    /**
+     * The page size is capped, so that a single request can not read an unbounded number of questions.
+     */
+    private int getPageSize(final Integer limit) {
+        if (limit == null || limit < 1) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    private PageCursor decodeCursor(final String cursor) throws InvalidCursorException {
+        return decodeCursor(cursor, PageCursor::decode);
+    }
+
+    /**
+     * Every listing rejects a cursor it has not handed out with the same error, whatever the kind of its cursor.
+     */
+    private static <T> T decodeCursor(final String cursor, final Function<String, T> decoder) throws InvalidCursorException {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return decoder.apply(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("QUER-003", "The page cursor is invalid");
+        }
+    }
+
+    /**
+     * One question more than the page size is read, so that the last page is known without counting the questions.
+     */
+    private Page<Question> toPage(final List<Question> questions, final int pageSize) {
+        return toPage(questions, pageSize, last -> new PageCursor(last.getDate(), last.getId()).encode());
+    }
+
+    private Page<Question> toPage(final List<Question> questions, final int pageSize, final Function<Question, String> cursorOf) {
+        if (questions.size() <= pageSize) {
+            return new Page<>(questions, null);
+        }
+        final List<Question> pageQuestions = questions.subList(0, pageSize);
+        return new Page<>(pageQuestions, cursorOf.apply(pageQuestions.get(pageSize - 1)));
     }
 
     /**
      * method used to check if the question owner is asking for question.
      *
      * @param questionUuId   the question id required
-     * @param authorizedUser authorized user instance
+     * @param principal      signed in user
      * @param actionType     type of action done edit or delete
      * @return Question Object
      * @throws AuthorizationFailedException thrown if the user is not the owner of the question
      * @throws InvalidQuestionException     thrown if the question does not exist
      */
     @Transactional(propagation = Propagation.REQUIRED)
-    public Question isUserQuestionOwner(String questionUuId, UserAuthEntity authorizedUser, ActionType actionType) throws AuthorizationFailedException, InvalidQuestionException {
+    public Question isUserQuestionOwner(String questionUuId, UserPrincipal principal, ActionType actionType) throws AuthorizationFailedException, InvalidQuestionException {
         Question question = questionDao.getQuestion(questionUuId);
         if (question == null) {
             throw new InvalidQuestionException("QUES-001", "Entered question uuid does not exist");
-        } else if (!question.getUser().getUuid().equals(authorizedUser.getUser_id().getUuid())) {
+        }
+        final boolean owner = principal.isUser(question.getUser());
+        if (!owner) {
             if (actionType.equals(ActionType.DELETE_QUESTION)) {
                 throw new AuthorizationFailedException("ATHR-003", "Only the question owner or admin can delete the question");
             } else {//that means edit mode. Hence show different message as mentioned in the assignment
                 throw new AuthorizationFailedException("ATHR-003", "Only the question owner can edit the question");
             }
-        } else if (!authorizedUser.getUser_id().getRole().equals(RoleType.admin)
-                && !question.getUser().getUuid().equals(authorizedUser.getUser_id().getUuid())
-                && actionType.equals(ActionType.DELETE_QUESTION)) {
+        } else if (!principal.isAdmin() && !owner && actionType.equals(ActionType.DELETE_QUESTION)) {
             throw new AuthorizationFailedException("ATHR-003", "Only the question owner or admin can delete the question");
         } else {
             return question;
@@ -112,20 +349,32 @@ public class QuestionService {
      * method used to edit question.
      *
      * @param question question object to be edited in database
+     * @throws EditConflictException if the question has been edited by another request since it was read
      */
-    @Transactional(propagation = Propagation.REQUIRED)
-    public void editQuestion(Question question) {
-        questionDao.editQuestion(question);
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = EditConflictException.class)
+    public void editQuestion(Question question) throws EditConflictException {
+        try {
+            questionDao.editQuestion(question);
+        } catch (OptimisticLockingFailureException e) {
+            throw new EditConflictException("QUES-002", "The question has been edited by another request, read it again before editing it");
+        }
+        questionSearchIndex.indexQuestion(question);
+        questionDetailCache.invalidate(question.getUuid());
     }
 
     /**
      * method used for deleting the question
+     * The answers of the question are deleted by the database, hence they are evicted from the cache here.
      *
      * @param question question object to be removed from Database.
      */
     @Transactional(propagation = Propagation.REQUIRED)
     public void deleteQuestion(Question question) {
+        List<Integer> answerIds = answerDao.getAnswerIdsForQuestion(question);
         questionDao.deleteQuestion(question);
+        entityCacheEvictor.evictAnswers(answerIds);
+        questionSearchIndex.removeQuestion(question);
+        questionDetailCache.invalidate(question.getUuid());
     }
 
     /**
@@ -0,0 +1,158 @@
+package com.upgrad.quora.service.business;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.upgrad.quora.service.common.TokenDigest;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.UserRevocationEntity;
+import com.upgrad.quora.service.projection.SignedOutSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact in-memory set of signed out JWT tokens, used by the stateless token verification.
+ * Only the digest and the expiry of each signed out token are kept, as in USER_AUTH, and a token is forgotten
+ * as soon as it expires because it can no longer be verified anyway.
+ * Sign outs on this server are registered right away, sign outs on other servers are picked up from
+ * the revoked_at column of USER_AUTH by a periodic refresh.
+ * Revocations of all the tokens of a user, e.g. of a deleted user whose sessions are gone from USER_AUTH,
+ * are written to USER_REVOCATION and picked up from there by the same refresh.
+ */
+@Component
+public class RevokedTokenRegistry {
+
+    @Autowired
+    private UserDao userDao;
+
+    private final Duration overlap;
+
+    private final Map<TokenDigest, Instant> revokedTokens = new ConcurrentHashMap<>();
+
+    private final Map<String, Instant> revokedUsers = new ConcurrentHashMap<>();
+
+    private volatile ZonedDateTime lastRefresh;
+
+    //latest revoked_at of USER_AUTH and of USER_REVOCATION seen by the refresh
+    private ZonedDateTime signOutsSeenUntil = ZonedDateTime.ofInstant(Instant.EPOCH, ZoneId.systemDefault());
+
+    private ZonedDateTime userRevocationsSeenUntil = signOutsSeenUntil;
+
+    public RevokedTokenRegistry(@Value("${quora.auth.revocation.refresh-interval-ms:30000}") final long refreshIntervalMillis) {
+        this.overlap = Duration.ofMillis(refreshIntervalMillis);
+    }
+
+    /**
+     * method used for checking if a token has been signed out.
+     *
+     * @param token decoded JWT token
+     * @return true if the token or its user has been revoked
+     */
+    public boolean isRevoked(final DecodedJWT token) {
+        return isRevoked(TokenDigest.of(token.getToken()), token.getAudience().isEmpty() ? null : token.getAudience().get(0),
+                token.getIssuedAt() == null ? null : token.getIssuedAt().toInstant());
+    }
+
+    /**
+     * method used for checking if a session has been signed out, e.g. a session served from the token cache.
+     * Sign outs and user revocations of other servers are only known once the next refresh has picked them up.
+     *
+     * @param accessTokenDigest digest of the access token of the session
+     * @param userUuid          uuid of the user of the session, null if unknown
+     * @param issuedAt          time the access token was issued, null if unknown
+     * @return true if the token or its user has been revoked
+     */
+    public boolean isRevoked(final TokenDigest accessTokenDigest, final String userUuid, final Instant issuedAt) {
+        if (lastRefresh == null) {
+            refresh();
+        }
+        if (revokedTokens.containsKey(accessTokenDigest)) {
+            return true;
+        }
+        Instant userRevokedAt = userUuid == null ? null : revokedUsers.get(userUuid);
+        return userRevokedAt != null && (issuedAt == null || !issuedAt.isAfter(userRevokedAt));
+    }
+
+    /**
+     * method used for registering a signed out access token.
+     * Access tokens which are not JWT tokens are ignored, they are always verified against the database.
+     *
+     * @param accessToken signed out access token
+     */
+    public void revoke(final String accessToken) {
+        DecodedJWT token = JwtTokenProvider.decodeToken(accessToken);
+        if (token != null && token.getExpiresAt() != null) {
+            revokedTokens.put(TokenDigest.of(accessToken), token.getExpiresAt().toInstant());
+        }
+    }
+
+    /**
+     * method used for registering a signed out access token of which only the digest is known.
+     *
+     * @param accessTokenDigest digest of the signed out access token
+     * @param expiresAt         expiry of the access token
+     */
+    public void revoke(final TokenDigest accessTokenDigest, final Instant expiresAt) {
+        revokedTokens.put(accessTokenDigest, expiresAt);
+    }
+
+    /**
+     * method used for revoking every token issued to a user so far, e.g. when the user is deleted or its role changes.
+     * The revocation is written to USER_REVOCATION in the transaction of the caller, so that the other servers
+     * pick it up with their next refresh once the transaction commits.
+     *
+     * @param userUuid uuid of the user
+     */
+    public void revokeUser(final String userUuid) {
+        final ZonedDateTime now = ZonedDateTime.now();
+        revokedUsers.merge(userUuid, now.toInstant(), RevokedTokenRegistry::latest);
+
+        UserRevocationEntity revocation = new UserRevocationEntity();
+        revocation.setUser_uuid(userUuid);
+        revocation.setRevoked_at(now);
+        userDao.createUserRevocation(revocation);
+    }
+
+    /**
+     * method used for loading the tokens signed out and the users revoked since the previous refresh and forgetting the expired ones.
+     * The sign outs are polled by revoked_at, the time they were written to USER_AUTH, not by the time the users signed out,
+     * as the write-behind queue may write a sign out long after it happened. Every poll starts one refresh interval before
+     * the latest sign out and user revocation seen so far, so that the writes committed late are not missed, and the poll
+     * bounds are compared with times of the database and of the revoking servers only, not with the clock of this server.
+     */
+    @Scheduled(fixedDelayString = "${quora.auth.revocation.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        for (SignedOutSession session : userDao.getSignedOutSessions(signOutsSeenUntil.minus(overlap), now)) {
+            revoke(TokenDigest.wrap(session.getAccessTokenDigest()), session.getExpiresAt().toInstant());
+            if (session.getRevokedAt().isAfter(signOutsSeenUntil)) {
+                signOutsSeenUntil = session.getRevokedAt();
+            }
+        }
+        for (UserRevocationEntity revocation : userDao.getUserRevocations(userRevocationsSeenUntil.minus(overlap))) {
+            revokedUsers.merge(revocation.getUser_uuid(), revocation.getRevoked_at().toInstant(), RevokedTokenRegistry::latest);
+            if (revocation.getRevoked_at().isAfter(userRevocationsSeenUntil)) {
+                userRevocationsSeenUntil = revocation.getRevoked_at();
+            }
+        }
+        final Instant nowInstant = now.toInstant();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt.isBefore(nowInstant));
+        revokedUsers.values().removeIf(revokedAt -> revokedAt.plus(JwtTokenProvider.TOKEN_VALIDITY).isBefore(nowInstant));
+        lastRefresh = now;
+    }
+
+    private static Instant latest(final Instant revokedAt, final Instant otherRevokedAt) {
+        return revokedAt.isAfter(otherRevokedAt) ? revokedAt : otherRevokedAt;
+    }
+
+    public int size() {
+        return revokedTokens.size();
+    }
+}
@@ -1,9 +1,10 @@
 package com.upgrad.quora.service.business;/* Create by Mansi Elhance */
 
-import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.cache.UserAuthTokenCache;
 import com.upgrad.quora.service.entity.UserAuthEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.SignOutRestrictedException;
+import com.upgrad.quora.service.session.SessionWriteBehindQueue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -17,18 +18,26 @@ import java.time.ZonedDateTime;
 public class SignOutBusinessService {
 
     @Autowired
-    private UserDao userDao;
+    private SessionWriteBehindQueue sessionWriteBehindQueue;
+
+    @Autowired
+    private UserAuthTokenCache userAuthTokenCache;
+
+    @Autowired
+    private RevokedTokenRegistry revokedTokenRegistry;
 
     @Transactional(propagation = Propagation.REQUIRED)
     public UserEntity signout(final String authorizationToken) throws SignOutRestrictedException {
 
-        UserAuthEntity userAuthEntity=userDao.getUserAuthToken(authorizationToken);
+        UserAuthEntity userAuthEntity=sessionWriteBehindQueue.getSession(authorizationToken);
         if(userAuthEntity == null){
             throw new SignOutRestrictedException("SGR-001","User is not Signed in");
         }
         else{
-            userAuthEntity.setLogout_at(ZonedDateTime.now());
-            userDao.updateUserEntity(userAuthEntity);
+            //only the logout time is written, by the write-behind queue, once the sign out has been journaled
+            sessionWriteBehindQueue.signOut(userAuthEntity, ZonedDateTime.now());
+            userAuthTokenCache.invalidate(authorizationToken);
+            revokedTokenRegistry.revoke(authorizationToken);
         }
         return userAuthEntity.getUser_id();
     }
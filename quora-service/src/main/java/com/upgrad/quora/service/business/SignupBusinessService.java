@@ -5,8 +5,8 @@ import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.SignUpRestrictedException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 //Service class for "signup" endpoint
 
@@ -17,22 +17,38 @@ public class SignupBusinessService {
     private UserDao userDao;
 
     @Autowired
-    private PasswordCryptographyProvider passwordCryptographyProvider=new PasswordCryptographyProvider();
+    private PasswordCryptographyProvider passwordCryptographyProvider;
 
-    @Transactional(propagation = Propagation.REQUIRED)
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * method used for signing up a user.
+     * The password is hashed outside of any transaction, as the hashing may take seconds under load:
+     * the username and email are checked, and the user is created, in short transactions of their own,
+     * so that no database connection is held while the password is hashed.
+     *
+     * @param userEntity user to be created, with its raw password
+     * @return created user
+     * @throws SignUpRestrictedException if the username or the email is already taken
+     */
     public UserEntity signup(UserEntity userEntity) throws SignUpRestrictedException {
 
-        String[] encryptedText = passwordCryptographyProvider.encrypt(userEntity.getPassword());
-        userEntity.setSalt(encryptedText[0]);
-        userEntity.setPassword(encryptedText[1]);
-        if(userDao.getUserByUsername(userEntity.getUsername())!=null)
+        final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        //the password is hashed only once the username and email are known to be free
+        if(transaction.execute(status -> userDao.getUserByUsername(userEntity.getUsername()))!=null)
         {
             throw new SignUpRestrictedException("SGR-001","Try any other Username, this Username has already been taken");
         }
-        else if(userDao.getUserByEmail(userEntity.getEmail())!=null){
+        else if(transaction.execute(status -> userDao.getUserByEmail(userEntity.getEmail()))!=null){
             throw new SignUpRestrictedException("SGR-002","This user has already been registered, try with any other emailId");
         }
-        else
-            return userDao.createUser(userEntity);
+        else {
+            String[] encryptedText = passwordCryptographyProvider.encrypt(userEntity.getPassword());
+            userEntity.setSalt(encryptedText[0]);
+            userEntity.setPassword(encryptedText[1]);
+            return transaction.execute(status -> userDao.createUser(userEntity));
+        }
     }
 }
@@ -0,0 +1,94 @@
+package com.upgrad.quora.service.business;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.upgrad.quora.service.entity.UserAuthEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Verifies JWT access tokens locally instead of looking them up in the USER_AUTH table.
+ * The signature, the issuer, the audience (user uuid) and the expiry are checked against the token itself
+ * with the server signing keyring, and signed out tokens are rejected through the RevokedTokenRegistry.
+ * The user is built from the token claims, so no per-user database read is needed. The claims hold until the token
+ * expires, hence the tokens of a user who is deleted, or whose role changes, must be revoked with invalidateUser.
+ * Tokens signed with a key which is not in the keyring, and tokens which are not JWT tokens at all,
+ * are left to the database lookup.
+ */
+@Component
+public class StatelessTokenVerifier {
+
+    public static final String STATELESS_MODE = "stateless";
+
+    @Autowired
+    private JwtSigningKeyring jwtSigningKeyring;
+
+    @Autowired
+    private RevokedTokenRegistry revokedTokenRegistry;
+
+    private final boolean enabled;
+
+    public StatelessTokenVerifier(@Value("${quora.auth.verification:database}") final String verificationMode) {
+        this.enabled = STATELESS_MODE.equalsIgnoreCase(verificationMode);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * method used for verifying an access token without reading the database.
+     *
+     * @param accessToken access token of the user
+     * @return session built from the token claims, or null if the token has to be looked up in the database
+     * @throws AuthorizationFailedException if the token is not valid or has been signed out
+     */
+    public UserAuthEntity verify(final String accessToken) throws AuthorizationFailedException {
+        DecodedJWT token = JwtTokenProvider.decodeToken(accessToken);
+        if (token == null || token.getId() == null || !jwtSigningKeyring.isKnownKey(token)) {
+            return null;
+        }
+        try {
+            token = jwtSigningKeyring.verify(accessToken);
+        } catch (JWTVerificationException e) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+        final Claim userId = token.getClaim(JwtTokenProvider.USER_ID_CLAIM);
+        if (token.getAudience() == null || token.getAudience().size() != 1 || userId.isNull()) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+        if (revokedTokenRegistry.isRevoked(token)) {
+            throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to delete a question");
+        }
+
+        UserEntity user = new UserEntity();
+        user.setUser_id(userId.asInt());
+        user.setUuid(token.getAudience().get(0));
+        user.setRole(token.getClaim(JwtTokenProvider.ROLE_CLAIM).asString());
+
+        UserAuthEntity userAuthEntity = new UserAuthEntity();
+        userAuthEntity.setUuid(user.getUuid());
+        userAuthEntity.setUser_id(user);
+        userAuthEntity.setAccess_token(accessToken);
+        userAuthEntity.setLogin_at(ZonedDateTime.ofInstant(token.getIssuedAt().toInstant(), ZoneId.systemDefault()));
+        userAuthEntity.setExpires_at(ZonedDateTime.ofInstant(token.getExpiresAt().toInstant(), ZoneId.systemDefault()));
+        return userAuthEntity;
+    }
+
+    /**
+     * method used for rejecting every token issued to a user so far, on every server, e.g. when the user is deleted.
+     * It must be called in the transaction which changes the user, see RevokedTokenRegistry.revokeUser.
+     *
+     * @param userUuid uuid of the user
+     */
+    public void invalidateUser(final String userUuid) {
+        revokedTokenRegistry.revokeUser(userUuid);
+    }
+}
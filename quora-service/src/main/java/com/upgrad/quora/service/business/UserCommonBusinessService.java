@@ -1,10 +1,15 @@
 package com.upgrad.quora.service.business;/* Create by Mansi Elhance */
 
+import com.upgrad.quora.service.cache.UserAuthTokenCache;
+import com.upgrad.quora.service.cache.UserProfileCache;
+import com.upgrad.quora.service.common.TokenDigest;
+import com.upgrad.quora.service.common.UserPrincipal;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.UserAuthEntity;
-import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.projection.UserProfile;
+import com.upgrad.quora.service.session.SessionWriteBehindQueue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -14,41 +19,86 @@ public class UserCommonBusinessService  {
     @Autowired
     private UserDao userDao;
 
+    @Autowired
+    private UserAuthTokenCache userAuthTokenCache;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private StatelessTokenVerifier statelessTokenVerifier;
+
+    @Autowired
+    private SessionWriteBehindQueue sessionWriteBehindQueue;
+
+    @Autowired
+    private RevokedTokenRegistry revokedTokenRegistry;
+
     /**
-     * Get the users details
+     * Get the profile of a user, read once and then served from the profile cache
      * @param userUuid
-     * @param authorizationToken
      * @return
-     * @throws AuthorizationFailedException
      * @throws UserNotFoundException
      */
-    public UserEntity getUser(final String userUuid, final String authorizationToken) throws AuthorizationFailedException, UserNotFoundException {
-        UserAuthEntity userAuthEntity=userDao.getUserAuthToken(authorizationToken);
-        if(userAuthEntity == null){
-            throw new AuthorizationFailedException("ATHR-001","User has not signed in");
-        } else if(userAuthEntity.getLogout_at() != null){
-            throw new AuthorizationFailedException("ATHR-002","User is signed out.Sign in first to get user details");
-        } else if(userDao.getUserByUuid(userUuid) == null){
-            throw new UserNotFoundException("USR-001","User with entered uuid does not exist");
-        } else{
-            return userDao.getUserByUuid(userAuthEntity.getUuid());
+    public UserProfile getUserProfile(final String userUuid) throws UserNotFoundException {
+        UserProfile userProfile = userProfileCache.get(userUuid);
+        if(userProfile == null){
+            final long cacheVersion = userProfileCache.getVersion();
+            userProfile = userDao.getUserProfile(userUuid);
+            if(userProfile == null){
+                throw new UserNotFoundException("USR-001","User with entered uuid does not exist");
+            }
+            userProfileCache.put(userProfile, cacheVersion);
         }
+        return userProfile;
+    }
+
+    /**
+     * Gets the signed in user of an access token, resolved once per request by the authentication filter of the api.
+     * @param authorizationToken
+     * @return
+     * @throws AuthorizationFailedException
+     */
+    public UserPrincipal getPrincipal(final String authorizationToken) throws AuthorizationFailedException {
+        return UserPrincipal.of(getUserByAccessToken(authorizationToken));
     }
 
     /**
-     * Gets the user by access token
+     * Gets the user by access token.
+     * In stateless verification mode JWT tokens are verified locally, without reading USER_AUTH.
+     * Otherwise signed in sessions are served from the token cache, the write-behind queue and the database are only queried on a cache miss.
+     * A cached session is checked against the revoked token registry, so that a sign out or a user deletion on another server
+     * stops it within one refresh interval of the registry instead of the time-to-live of the cache.
      * @param authorizationToken
      * @return
      * @throws AuthorizationFailedException
      */
     public UserAuthEntity getUserByAccessToken(String authorizationToken) throws AuthorizationFailedException {
-        UserAuthEntity userAuthTokenEntity = userDao.getUserAuthToken(authorizationToken);
+        if (statelessTokenVerifier.isEnabled()) {
+            UserAuthEntity verifiedUserAuthEntity = statelessTokenVerifier.verify(authorizationToken);
+            if (verifiedUserAuthEntity != null) {
+                return verifiedUserAuthEntity;
+            }
+        }
+        UserAuthEntity cachedUserAuthEntity = userAuthTokenCache.get(authorizationToken);
+        if (cachedUserAuthEntity != null) {
+            if (revokedTokenRegistry.isRevoked(TokenDigest.of(authorizationToken), cachedUserAuthEntity.getUser_id().getUuid(),
+                    cachedUserAuthEntity.getLogin_at() == null ? null : cachedUserAuthEntity.getLogin_at().toInstant())) {
+                userAuthTokenCache.invalidate(authorizationToken);
+                throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to delete a question");
+            }
+            return cachedUserAuthEntity;
+        }
+        //taken before the session is read, a sign out committed meanwhile keeps the session out of the cache
+        final long cacheVersion = userAuthTokenCache.getVersion();
+        UserAuthEntity userAuthTokenEntity = sessionWriteBehindQueue.getSession(authorizationToken);
         if (userAuthTokenEntity == null) {
             throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
         }
-        if (userAuthTokenEntity.getLogout_at() != null) {
+        if (sessionWriteBehindQueue.isSignedOut(userAuthTokenEntity)) {
             throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to delete a question");
         }
+        userAuthTokenCache.put(userAuthTokenEntity, cacheVersion);
         return userAuthTokenEntity;
     }
 }
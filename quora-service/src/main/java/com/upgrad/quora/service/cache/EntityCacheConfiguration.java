@@ -0,0 +1,69 @@
+package com.upgrad.quora.service.cache;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.internal.StandardQueryCache;
+import org.hibernate.cache.spi.UpdateTimestampsCache;
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Creates the regions of the hibernate second-level and query cache with the sizing of the "quora.cache" properties.
+ * Hibernate looks up its regions in the default ehcache JCache manager, so the regions are created in that manager
+ * before the entity manager factory starts; regions which are not configured would be created unbounded.
+ */
+@Configuration
+@EnableConfigurationProperties(EntityCacheProperties.class)
+public class EntityCacheConfiguration {
+
+    public static final String ENTITY_CACHE_MANAGER = "entityCacheManager";
+
+    @Bean(name = ENTITY_CACHE_MANAGER, destroyMethod = "close")
+    public CacheManager entityCacheManager(final EntityCacheProperties entityCacheProperties) {
+        CachingProvider cachingProvider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = cachingProvider.getCacheManager();
+        for (Map.Entry<String, EntityCacheProperties.Region> region : entityCacheProperties.getRegions().entrySet()) {
+            createCache(cacheManager, region.getKey(), region.getValue());
+        }
+        createCache(cacheManager, StandardQueryCache.class.getName(), entityCacheProperties.getDefaultQueryResults());
+        //the update timestamps of the tables must outlive every cached query result, hence they never expire
+        EntityCacheProperties.Region updateTimestamps = new EntityCacheProperties.Region();
+        createCache(cacheManager, UpdateTimestampsCache.REGION_NAME, updateTimestamps);
+        return cacheManager;
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnEntityCacheManager() {
+        return new EntityManagerFactoryDependsOnPostProcessor(ENTITY_CACHE_MANAGER);
+    }
+
+    private static void createCache(final CacheManager cacheManager, final String regionName, final EntityCacheProperties.Region region) {
+        if (cacheManager.getCache(regionName) != null) {
+            return;
+        }
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(region.getHeapEntries());
+        if (region.getOffHeapMb() > 0) {
+            resourcePools = resourcePools.offheap(region.getOffHeapMb(), MemoryUnit.MB);
+        }
+        CacheConfigurationBuilder<Object, Object> configuration = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools);
+        if (region.getTimeToLiveSeconds() > 0) {
+            configuration = configuration.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(region.getTimeToLiveSeconds())));
+        }
+        CacheConfiguration<Object, Object> cacheConfiguration = configuration.build();
+        cacheManager.createCache(regionName, Eh107Configuration.fromEhcacheCacheConfiguration(cacheConfiguration));
+    }
+}
@@ -0,0 +1,76 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.common.TransactionCallbacks;
+import com.upgrad.quora.service.entity.Answer;
+import com.upgrad.quora.service.entity.Question;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.util.List;
+
+/**
+ * Evicts the rows which the database deletes on its own from the hibernate second-level and query cache.
+ * Deleting a user deletes its questions and answers, and deleting a question deletes its answers, through
+ * ON DELETE CASCADE foreign keys which hibernate does not know about, so the cached copies of these rows
+ * and the cached query results naming them have to be evicted by the delete paths.
+ * Likewise the questions whose answer count is updated in place are evicted by the question dao, one by one.
+ */
+@Component
+public class EntityCacheEvictor {
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * method used for evicting the answers deleted along with a question.
+     *
+     * @param answerIds ids of the answers of the question
+     */
+    public void evictAnswers(final List<Integer> answerIds) {
+        final Runnable eviction = () -> {
+            Cache cache = getCache();
+            for (Integer answerId : answerIds) {
+                cache.evictEntity(Answer.class, answerId);
+            }
+            cache.evictQueryRegions();
+        };
+        eviction.run();
+        TransactionCallbacks.afterCommit(eviction);
+    }
+
+    /**
+     * method used for evicting the questions whose answer count has been updated by the database.
+     *
+     * @param questionIds ids of the questions
+     */
+    public void evictQuestions(final List<Integer> questionIds) {
+        final Runnable eviction = () -> {
+            Cache cache = getCache();
+            for (Integer questionId : questionIds) {
+                cache.evictEntity(Question.class, questionId);
+            }
+        };
+        eviction.run();
+        TransactionCallbacks.afterCommit(eviction);
+    }
+
+    /**
+     * method used for evicting the questions and answers deleted along with a user.
+     */
+    public void evictQuestionsAndAnswers() {
+        final Runnable eviction = () -> {
+            Cache cache = getCache();
+            cache.evictEntityRegion(Question.class);
+            cache.evictEntityRegion(Answer.class);
+            cache.evictQueryRegions();
+        };
+        eviction.run();
+        TransactionCallbacks.afterCommit(eviction);
+    }
+
+    private Cache getCache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+}
@@ -0,0 +1,81 @@
+package com.upgrad.quora.service.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sizing of the regions of the hibernate second-level and query cache, bound from the "quora.cache" properties.
+ */
+@ConfigurationProperties(prefix = "quora.cache")
+public class EntityCacheProperties {
+
+    /**
+     * Entity and query regions, by region name.
+     */
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    /**
+     * Sizing of the query results region used by the cacheable queries which name no region.
+     */
+    private Region defaultQueryResults = new Region();
+
+    public Map<String, Region> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, Region> regions) {
+        this.regions = regions;
+    }
+
+    public Region getDefaultQueryResults() {
+        return defaultQueryResults;
+    }
+
+    public void setDefaultQueryResults(Region defaultQueryResults) {
+        this.defaultQueryResults = defaultQueryResults;
+    }
+
+    public static class Region {
+
+        /**
+         * Entries kept on the heap.
+         */
+        private long heapEntries = 1000;
+
+        /**
+         * Megabytes kept off the heap in addition to the heap entries, 0 for none.
+         */
+        private long offHeapMb = 0;
+
+        /**
+         * Seconds an entry is kept after it has been cached, 0 for no expiry.
+         */
+        private long timeToLiveSeconds = 0;
+
+        public long getHeapEntries() {
+            return heapEntries;
+        }
+
+        public void setHeapEntries(long heapEntries) {
+            this.heapEntries = heapEntries;
+        }
+
+        public long getOffHeapMb() {
+            return offHeapMb;
+        }
+
+        public void setOffHeapMb(long offHeapMb) {
+            this.offHeapMb = offHeapMb;
+        }
+
+        public long getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+    }
+}
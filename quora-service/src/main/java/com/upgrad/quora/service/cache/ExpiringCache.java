@@ -0,0 +1,190 @@
+package com.upgrad.quora.service.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, least-recently-used in-memory cache whose entries expire after a time-to-live.
+ * Every entry carries its own expiry instant, which is never later than the cache wide time-to-live.
+ * Hit, miss and eviction counters are kept so that the cache effectiveness can be observed.
+ *
+ * @param <K> type of the key
+ * @param <V> type of the cached value
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maxEntries;
+
+    private final Duration timeToLive;
+
+    private final Clock clock;
+
+    private final Map<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ExpiringCache(final int maxEntries, final Duration timeToLive) {
+        this(maxEntries, timeToLive, Clock.systemUTC());
+    }
+
+    public ExpiringCache(final int maxEntries, final Duration timeToLive, final Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        //access ordered map, so that the eldest entry is always the least recently used one
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * method used for getting a live value from the cache.
+     *
+     * @param key key of the entry
+     * @return cached value, or null if the key is absent or its entry has expired
+     */
+    public V get(final K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (entry.isExpired(clock.instant())) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value;
+        }
+    }
+
+    /**
+     * method used for storing a value with the cache wide time-to-live.
+     *
+     * @param key   key of the entry
+     * @param value value to be cached
+     */
+    public void put(final K key, final V value) {
+        put(key, value, null);
+    }
+
+    /**
+     * method used for storing a value which must not outlive the given instant.
+     * Values which are already expired are not stored at all.
+     *
+     * @param key       key of the entry
+     * @param value     value to be cached
+     * @param expiresAt instant after which the value is no longer valid, null for the cache wide time-to-live
+     */
+    public void put(final K key, final V value, final Instant expiresAt) {
+        final Instant now = clock.instant();
+        Instant entryExpiry = now.plus(timeToLive);
+        if (expiresAt != null && expiresAt.isBefore(entryExpiry)) {
+            entryExpiry = expiresAt;
+        }
+        if (!entryExpiry.isAfter(now)) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<V>(value, entryExpiry));
+        }
+    }
+
+    /**
+     * method used for removing a single entry from the cache.
+     *
+     * @param key key of the entry to be removed
+     */
+    public void invalidate(final K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * method used for removing every entry whose value matches the given predicate.
+     *
+     * @param predicate condition on the cached value
+     * @return number of removed entries
+     */
+    public int invalidateIf(final Predicate<V> predicate) {
+        int removed = 0;
+        synchronized (entries) {
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (predicate.test(iterator.next().value)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final Instant expiresAt;
+
+        private Entry(final V value, final Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(final Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+}
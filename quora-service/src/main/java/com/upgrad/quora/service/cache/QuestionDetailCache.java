@@ -0,0 +1,105 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.common.TransactionCallbacks;
+import com.upgrad.quora.service.projection.QuestionDetail;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * In-process cache of the question detail pages, keyed by question uuid, page size and cursor.
+ * The entries live a few seconds only, so that a question read by many users at once is read from the database once,
+ * and the writes of a question and of its answers invalidate the cached pages of the question right away.
+ * Every invalidation increments the version of the cache, and a page is only cached if no invalidation happened
+ * since it was read, so that a reader cannot put back a page as it was before a write committed.
+ */
+@Component
+public class QuestionDetailCache {
+
+    private final ExpiringCache<String, QuestionDetail> cache;
+
+    private long version;
+
+    public QuestionDetailCache(@Value("${quora.question-detail.cache.max-entries:1000}") final int maxEntries,
+                               @Value("${quora.question-detail.cache.time-to-live-seconds:10}") final long timeToLiveSeconds) {
+        this.cache = new ExpiringCache<>(maxEntries, Duration.ofSeconds(timeToLiveSeconds));
+    }
+
+    /**
+     * method used for getting a cached page of a question.
+     *
+     * @param questionUuid uuid of the question
+     * @param pageSize     number of answers of the page
+     * @param cursor       cursor of the page, null for the first page
+     * @return cached page or null if the page is not cached
+     */
+    public QuestionDetail get(final String questionUuid, final int pageSize, final String cursor) {
+        return cache.get(key(questionUuid, pageSize, cursor));
+    }
+
+    /**
+     * method used for getting the version of the cache, before a page is read to be cached.
+     *
+     * @return number of invalidations so far
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * method used for caching a page of a question which has just been read from the database.
+     * Pages read before the latest invalidation are not cached, their question or answers may have changed since.
+     *
+     * @param pageSize       number of answers of the page
+     * @param cursor         cursor of the page, null for the first page
+     * @param questionDetail page to be cached
+     * @param readVersion    version of the cache taken before the page was read
+     */
+    public synchronized void put(final int pageSize, final String cursor, final QuestionDetail questionDetail, final long readVersion) {
+        if (readVersion != version) {
+            return;
+        }
+        cache.put(key(questionDetail.getUuid(), pageSize, cursor), questionDetail);
+    }
+
+    /**
+     * method used for removing every cached page of a question.
+     * The pages are removed right away and once more after the surrounding transaction commits,
+     * so that a page read before the commit is neither served nor cached any more.
+     *
+     * @param questionUuid uuid of the question
+     */
+    public void invalidate(final String questionUuid) {
+        final Runnable invalidation = () -> {
+            synchronized (this) {
+                version++;
+                cache.invalidateIf(detail -> questionUuid.equals(detail.getUuid()));
+            }
+        };
+        invalidation.run();
+        TransactionCallbacks.afterCommit(invalidation);
+    }
+
+    /**
+     * method used for removing every cached page, when the questions and answers of a user are deleted.
+     */
+    public void invalidateAll() {
+        final Runnable invalidation = () -> {
+            synchronized (this) {
+                version++;
+                cache.invalidateAll();
+            }
+        };
+        invalidation.run();
+        TransactionCallbacks.afterCommit(invalidation);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private static String key(final String questionUuid, final int pageSize, final String cursor) {
+        return questionUuid + "|" + pageSize + "|" + (cursor == null ? "" : cursor);
+    }
+}
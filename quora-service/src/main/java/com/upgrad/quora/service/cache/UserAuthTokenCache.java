@@ -0,0 +1,112 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.common.TransactionCallbacks;
+import com.upgrad.quora.service.entity.UserAuthEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * In-process cache of signed in sessions keyed by access token.
+ * Only sessions which are still signed in are cached, and never beyond their expires_at time.
+ * Sign out and user deletion must invalidate the cache so that revoked sessions stop working right away.
+ * Every invalidation increments the version of the cache, and a session is only cached if no invalidation
+ * happened since it was read, so that a reader cannot put back a session as it was before a sign out committed.
+ */
+@Component
+public class UserAuthTokenCache {
+
+    private final ExpiringCache<String, UserAuthEntity> cache;
+
+    private long version;
+
+    public UserAuthTokenCache(@Value("${quora.auth.token-cache.max-entries:10000}") final int maxEntries,
+                              @Value("${quora.auth.token-cache.time-to-live-seconds:300}") final long timeToLiveSeconds) {
+        this.cache = new ExpiringCache<>(maxEntries, Duration.ofSeconds(timeToLiveSeconds));
+    }
+
+    /**
+     * method used for getting a cached session.
+     *
+     * @param accessToken access token of the user
+     * @return cached session or null if the token is not cached
+     */
+    public UserAuthEntity get(final String accessToken) {
+        return cache.get(accessToken);
+    }
+
+    /**
+     * method used for getting the version of the cache, before a session is read to be cached.
+     *
+     * @return number of invalidations so far
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * method used for caching a session which has just been read from the database.
+     * Signed out sessions are not cached, and neither are sessions read before the latest invalidation,
+     * which may have been signed out since.
+     *
+     * @param userAuthEntity session to be cached
+     * @param readVersion    version of the cache taken before the session was read
+     */
+    public synchronized void put(final UserAuthEntity userAuthEntity, final long readVersion) {
+        if (readVersion != version || userAuthEntity.getLogout_at() != null || userAuthEntity.getExpires_at() == null) {
+            return;
+        }
+        cache.put(userAuthEntity.getAccess_token(), userAuthEntity, userAuthEntity.getExpires_at().toInstant());
+    }
+
+    /**
+     * method used for removing a session from the cache.
+     * The session is removed right away and once more after the surrounding transaction commits,
+     * so that a concurrent reader cannot put back the session as it was before the commit.
+     *
+     * @param accessToken access token of the session
+     */
+    public void invalidate(final String accessToken) {
+        final Runnable invalidation = () -> {
+            synchronized (this) {
+                version++;
+                cache.invalidate(accessToken);
+            }
+        };
+        invalidation.run();
+        TransactionCallbacks.afterCommit(invalidation);
+    }
+
+    /**
+     * method used for removing every cached session of a user.
+     *
+     * @param userUuid uuid of the user
+     */
+    public void invalidateUser(final String userUuid) {
+        final Runnable invalidation = () -> {
+            synchronized (this) {
+                version++;
+                cache.invalidateIf(session -> userUuid.equals(session.getUser_id().getUuid()));
+            }
+        };
+        invalidation.run();
+        TransactionCallbacks.afterCommit(invalidation);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+}
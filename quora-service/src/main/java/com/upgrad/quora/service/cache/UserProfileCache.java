@@ -0,0 +1,83 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.common.TransactionCallbacks;
+import com.upgrad.quora.service.projection.UserProfile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * In-process cache of the user profiles, keyed by user uuid.
+ * Profiles are not edited once the user has signed up, hence only the deletion of a user invalidates its profile;
+ * the time-to-live bounds how long another server keeps serving the profile of a deleted user.
+ * A profile read while the user is being deleted is not cached once the deletion has invalidated the profile,
+ * as the number of deletions so far is taken before the read and checked again by put.
+ */
+@Component
+public class UserProfileCache {
+
+    private final ExpiringCache<String, UserProfile> cache;
+
+    private long version;
+
+    public UserProfileCache(@Value("${quora.user-profile.cache.max-entries:10000}") final int maxEntries,
+                            @Value("${quora.user-profile.cache.time-to-live-seconds:300}") final long timeToLiveSeconds) {
+        this.cache = new ExpiringCache<>(maxEntries, Duration.ofSeconds(timeToLiveSeconds));
+    }
+
+    /**
+     * method used for getting a cached profile.
+     *
+     * @param userUuid uuid of the user
+     * @return cached profile or null if the profile is not cached
+     */
+    public UserProfile get(final String userUuid) {
+        return cache.get(userUuid);
+    }
+
+    /**
+     * method used for getting the version of the cache, before a profile is read to be cached.
+     *
+     * @return number of invalidations so far
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * method used for caching a profile which has just been read from the database.
+     * Profiles read before the latest invalidation are not cached, their user may have been deleted since.
+     *
+     * @param userProfile profile to be cached
+     * @param readVersion version of the cache taken before the profile was read
+     */
+    public synchronized void put(final UserProfile userProfile, final long readVersion) {
+        if (readVersion != version) {
+            return;
+        }
+        cache.put(userProfile.getUuid(), userProfile);
+    }
+
+    /**
+     * method used for removing the profile of a user.
+     * The profile is removed right away and once more after the surrounding transaction commits,
+     * so that a concurrent reader cannot put back the profile as it was before the commit.
+     *
+     * @param userUuid uuid of the user
+     */
+    public void invalidate(final String userUuid) {
+        final Runnable invalidation = () -> {
+            synchronized (this) {
+                version++;
+                cache.invalidate(userUuid);
+            }
+        };
+        invalidation.run();
+        TransactionCallbacks.afterCommit(invalidation);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
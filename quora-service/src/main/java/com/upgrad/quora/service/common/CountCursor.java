@@ -0,0 +1,46 @@
+package com.upgrad.quora.service.common;
+
+/**
+ * Position of a listing ordered by (count, id), i.e. the count and the id of the last item of a page.
+ * It is handed to the clients as an opaque url safe string, encoded like the PageCursor of the question listings.
+ */
+public class CountCursor {
+
+    private final int count;
+
+    private final Integer id;
+
+    public CountCursor(final int count, final Integer id) {
+        this.count = count;
+        this.id = id;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * method used for encoding the cursor as an opaque string.
+     *
+     * @return url safe cursor string
+     */
+    public String encode() {
+        return PageCursor.encodePosition(count, id);
+    }
+
+    /**
+     * method used for decoding a cursor string received from a client.
+     *
+     * @param cursor url safe cursor string
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the string is not a valid cursor
+     */
+    public static CountCursor decode(final String cursor) {
+        final String[] position = PageCursor.decodePosition(cursor, 2);
+        return new CountCursor(Integer.parseInt(position[0]), Integer.valueOf(position[1]));
+    }
+}
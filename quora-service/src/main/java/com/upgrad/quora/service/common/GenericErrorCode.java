@@ -10,7 +10,14 @@ public enum GenericErrorCode implements ErrorCode {
      * <b>Cause:</b> This error could have occurred due to undetermined runtime errors.<br>
      * <b>Action: None</b><br>
      */
-    GEN_001("GEN-001", "An unexpected error occurred. Please contact System Administrator");
+    GEN_001("GEN-001", "An unexpected error occurred. Please contact System Administrator"),
+
+    /**
+     * Error message: <b>The server is busy. Please try again later</b><br>
+     * <b>Cause:</b> This error could have occurred because too many requests are waiting for a shared resource, e.g. password hashing.<br>
+     * <b>Action: Retry the request later</b><br>
+     */
+    GEN_002("GEN-002", "The server is busy. Please try again later");
 
     private static final Map<String, GenericErrorCode> LOOKUP = new HashMap<String, GenericErrorCode>();
 
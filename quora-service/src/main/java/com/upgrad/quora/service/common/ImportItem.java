@@ -0,0 +1,40 @@
+package com.upgrad.quora.service.common;
+
+import java.util.List;
+
+/**
+ * One item of a bulk import: either a new question with its answers, or answers to an existing question.
+ */
+public class ImportItem {
+
+    private final int line;
+
+    private final String questionUuid;
+
+    private final String content;
+
+    private final List<String> answers;
+
+    public ImportItem(final int line, final String questionUuid, final String content, final List<String> answers) {
+        this.line = line;
+        this.questionUuid = questionUuid;
+        this.content = content;
+        this.answers = answers;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getQuestionUuid() {
+        return questionUuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public List<String> getAnswers() {
+        return answers;
+    }
+}
@@ -0,0 +1,74 @@
+package com.upgrad.quora.service.common;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one item of a bulk import.
+ * Rejected items are not valid and have not been stored, failed items were valid but could not be stored.
+ */
+public class ImportResult {
+
+    public static final String CREATED = "CREATED";
+
+    public static final String REJECTED = "REJECTED";
+
+    public static final String FAILED = "FAILED";
+
+    private final int line;
+
+    private final String status;
+
+    private final String questionUuid;
+
+    private final List<String> answerUuids;
+
+    private final String code;
+
+    private final String message;
+
+    private ImportResult(final int line, final String status, final String questionUuid, final List<String> answerUuids, final String code, final String message) {
+        this.line = line;
+        this.status = status;
+        this.questionUuid = questionUuid;
+        this.answerUuids = answerUuids;
+        this.code = code;
+        this.message = message;
+    }
+
+    public static ImportResult created(final int line, final String questionUuid, final List<String> answerUuids) {
+        return new ImportResult(line, CREATED, questionUuid, answerUuids, null, null);
+    }
+
+    public static ImportResult rejected(final int line, final String code, final String message) {
+        return new ImportResult(line, REJECTED, null, Collections.emptyList(), code, message);
+    }
+
+    public static ImportResult failed(final int line, final String code, final String message) {
+        return new ImportResult(line, FAILED, null, Collections.emptyList(), code, message);
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getQuestionUuid() {
+        return questionUuid;
+    }
+
+    public List<String> getAnswerUuids() {
+        return answerUuids;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
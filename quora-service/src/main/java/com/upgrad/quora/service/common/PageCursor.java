@@ -0,0 +1,90 @@
+package com.upgrad.quora.service.common;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+
+/**
+ * Position of a keyset paginated listing ordered by (date, id), i.e. the date and the id of the last item of a page.
+ * It is handed to the clients as an opaque url safe string. The cursors of the listings ordered otherwise,
+ * e.g. SearchCursor, are encoded the same way with encodePosition and decodePosition.
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final ZonedDateTime date;
+
+    private final Integer id;
+
+    public PageCursor(final ZonedDateTime date, final Integer id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public ZonedDateTime getDate() {
+        return date;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * method used for encoding the cursor as an opaque string.
+     *
+     * @return url safe cursor string
+     */
+    public String encode() {
+        final Instant instant = date.toInstant();
+        return encodePosition(instant.getEpochSecond(), instant.getNano(), id);
+    }
+
+    /**
+     * method used for decoding a cursor string received from a client.
+     *
+     * @param cursor url safe cursor string
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the string is not a valid cursor
+     */
+    public static PageCursor decode(final String cursor) {
+        final String[] position = decodePosition(cursor, 3);
+        final Instant instant = Instant.ofEpochSecond(Long.parseLong(position[0]), Long.parseLong(position[1]));
+        return new PageCursor(ZonedDateTime.ofInstant(instant, ZoneId.systemDefault()), Integer.valueOf(position[2]));
+    }
+
+    /**
+     * method used for encoding the position of the last item of a page as an opaque string.
+     *
+     * @param fields values of the sort keys of the item, in the order of the listing
+     * @return url safe cursor string
+     */
+    static String encodePosition(final Object... fields) {
+        final StringBuilder position = new StringBuilder();
+        for (Object field : fields) {
+            if (position.length() > 0) {
+                position.append(SEPARATOR);
+            }
+            position.append(field);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * method used for decoding a position encoded by encodePosition.
+     *
+     * @param cursor url safe cursor string
+     * @param fields number of sort keys of the listing
+     * @return values of the sort keys
+     * @throws IllegalArgumentException if the string is not a valid cursor
+     */
+    static String[] decodePosition(final String cursor, final int fields) {
+        final String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR);
+        if (position.length != fields) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,20 @@
+package com.upgrad.quora.service.common;
+
+import java.io.IOException;
+
+/**
+ * Callback receiving the rows of a streamed read one at a time, while the rows are still being read from the database.
+ *
+ * @param <T> type of the rows
+ */
+@FunctionalInterface
+public interface RowCallback<T> {
+
+    /**
+     * method called for every row read.
+     *
+     * @param row the row
+     * @throws IOException if the row can not be written out
+     */
+    void accept(T row) throws IOException;
+}
@@ -0,0 +1,59 @@
+package com.upgrad.quora.service.common;
+
+/**
+ * Position of a search result listing ordered by (rank, id), i.e. the rank and the id of the last question of a page.
+ * It is handed to the clients as an opaque url safe string, encoded like the PageCursor of the question listings.
+ */
+public class SearchCursor {
+
+    private final double rank;
+
+    private final Integer id;
+
+    public SearchCursor(final double rank, final Integer id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    public double getRank() {
+        return rank;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * method used for checking if a question is on a page after the cursor, in the (rank, id) descending order of the listing.
+     * The in memory search index pages its results with this condition, the database search with the same condition in sql.
+     *
+     * @param questionRank rank of the question
+     * @param questionId   id of the question
+     * @return true if the question comes after the cursor
+     */
+    public boolean precedes(final double questionRank, final int questionId) {
+        return questionRank < rank || (questionRank == rank && questionId < id);
+    }
+
+    /**
+     * method used for encoding the cursor as an opaque string.
+     * The rank is written with all its digits, so that the decoded rank equals the rank computed by the database.
+     *
+     * @return url safe cursor string
+     */
+    public String encode() {
+        return PageCursor.encodePosition(Double.toString(rank), id);
+    }
+
+    /**
+     * method used for decoding a cursor string received from a client.
+     *
+     * @param cursor url safe cursor string
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the string is not a valid cursor
+     */
+    public static SearchCursor decode(final String cursor) {
+        final String[] position = PageCursor.decodePosition(cursor, 2);
+        return new SearchCursor(Double.parseDouble(position[0]), Integer.valueOf(position[1]));
+    }
+}
@@ -0,0 +1,67 @@
+package com.upgrad.quora.service.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * SHA-256 digest of an access token, the form in which sessions are stored in and looked up from USER_AUTH.
+ * The digest has a fixed length of 32 bytes whatever the length of the token, and the token can not be
+ * recovered from it, so a copy of USER_AUTH holds no usable access token.
+ */
+public final class TokenDigest {
+
+    public static final int LENGTH = 32;
+
+    private static final String ALGORITHM = "SHA-256";
+
+    //MessageDigest instances are not thread safe, hence every thread keeps its own instance
+    private static final ThreadLocal<MessageDigest> MESSAGE_DIGESTS = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        }
+    });
+
+    private final byte[] digest;
+
+    private TokenDigest(final byte[] digest) {
+        this.digest = digest;
+    }
+
+    /**
+     * method used for computing the digest of an access token.
+     *
+     * @param accessToken access token
+     * @return digest of the token
+     */
+    public static TokenDigest of(final String accessToken) {
+        return new TokenDigest(MESSAGE_DIGESTS.get().digest(accessToken.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * method used for wrapping a digest read from USER_AUTH.
+     *
+     * @param digest digest bytes
+     * @return digest
+     */
+    public static TokenDigest wrap(final byte[] digest) {
+        return new TokenDigest(digest);
+    }
+
+    public byte[] getBytes() {
+        return digest;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || (obj instanceof TokenDigest && Arrays.equals(digest, ((TokenDigest) obj).digest));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(digest);
+    }
+}
@@ -0,0 +1,34 @@
+package com.upgrad.quora.service.common;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs work once the surrounding spring transaction has committed, e.g. the invalidation of an in-process cache
+ * which has to happen after the change it follows is visible to the other transactions.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * method used for running an action after the surrounding transaction commits.
+     * Nothing is run if the transaction rolls back.
+     *
+     * @param action action to be run
+     * @return true if the action was registered, false if there is no transaction synchronization active
+     */
+    public static boolean afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package com.upgrad.quora.service.common;
+
+import com.upgrad.quora.service.entity.UserAuthEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+
+/**
+ * Immutable signed in user of a request, resolved from the access token once per request.
+ * It holds what the services need to authorize the request, so that they neither query the session
+ * again nor reach into the session and user entities for every check.
+ */
+public final class UserPrincipal {
+
+    private final Integer userId;
+
+    private final String uuid;
+
+    private final String role;
+
+    private UserPrincipal(final Integer userId, final String uuid, final String role) {
+        this.userId = userId;
+        this.uuid = uuid;
+        this.role = role;
+    }
+
+    /**
+     * method used for getting the principal of a signed in session.
+     *
+     * @param userAuthEntity signed in session
+     * @return principal of the user of the session
+     */
+    public static UserPrincipal of(final UserAuthEntity userAuthEntity) {
+        final UserEntity user = userAuthEntity.getUser_id();
+        return new UserPrincipal(user.getUser_id(), user.getUuid(), user.getRole());
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public boolean isAdmin() {
+        return RoleType.admin.name().equals(role);
+    }
+
+    /**
+     * method used for checking whether a user is the user of the principal.
+     *
+     * @param user user, e.g. the owner of a question
+     * @return true if the user is the user of the principal
+     */
+    public boolean isUser(final UserEntity user) {
+        return userId.equals(user.getUser_id());
+    }
+
+    /**
+     * method used for getting a detached user holding the id of the principal, e.g. for the owner of a new question.
+     * Only the id is written by the foreign keys, hence the user is not read from the database.
+     *
+     * @return new detached user
+     */
+    public UserEntity toUser() {
+        final UserEntity user = new UserEntity();
+        user.setUser_id(userId);
+        user.setUuid(uuid);
+        user.setRole(role);
+        return user;
+    }
+}
@@ -1,11 +1,19 @@
 package com.upgrad.quora.service.dao;
 
+import com.upgrad.quora.service.common.RowCallback;
 import com.upgrad.quora.service.entity.Answer;
+import com.upgrad.quora.service.entity.Question;
+import com.upgrad.quora.service.projection.AnswerIndexRow;
+import com.upgrad.quora.service.projection.AnswerSummary;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import java.io.IOException;
 import java.util.List;
 
 @Repository
@@ -14,6 +22,9 @@ public class AnswerDao {
     @PersistenceContext
     EntityManager entityManager;
 
+    @Value("${quora.export.fetch-size:500}")
+    private int exportFetchSize;
+
 
     public Answer createAnswer(Answer answer) {
         entityManager.persist(answer);
@@ -31,15 +42,51 @@ public class AnswerDao {
         }
     }
 
+    /**
+     * method used for editing the answer in database.
+     * The update is flushed here, so that an update of an answer changed since it was read fails in this call.
+     *
+     * @param answer answer to be updated
+     * @return updated answer
+     */
     public Answer editAnswer(Answer answer) {
-        entityManager.persist(answer);
-        return answer;
+        Answer editedAnswer = entityManager.merge(answer);
+        entityManager.flush();
+        return editedAnswer;
     }
 
     public void deleteAnswer(Answer answer) {
         entityManager.remove(answer);
     }
 
+    public List<Integer> getAnswerIdsForQuestion(Question question) {
+        return entityManager.createNamedQuery("answerIdsForQuestion", Integer.class)
+                .setParameter("question", question)
+                .getResultList();
+    }
+
+    /**
+     * method used for getting the highest answer id, 0 if there is no answer.
+     */
+    public int getMaxAnswerId() {
+        Integer maxId = entityManager.createNamedQuery("maxAnswerId", Integer.class).getSingleResult();
+        return maxId == null ? 0 : maxId;
+    }
+
+    /**
+     * method used for reading the answers of an id range for the search index.
+     *
+     * @param fromId lowest id of the range
+     * @param toId   highest id of the range
+     * @return indexed columns of the answers in the range
+     */
+    public List<AnswerIndexRow> getAnswerIndexRows(int fromId, int toId) {
+        return entityManager.createNamedQuery("answerIndexRows", AnswerIndexRow.class)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .getResultList();
+    }
+
     public List<Answer> getAnswersForQuestion(String questionUuId) {
         try {
             return entityManager.createNamedQuery("getAnsersForQuestion", Answer.class)
@@ -49,4 +96,29 @@ public class AnswerDao {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * method used for reading all the answers to a question with a forward-only database cursor.
+     * The rows are fetched from the database in batches of the fetch size and handed to the callback one at a time,
+     * so the memory used does not grow with the number of answers.
+     *
+     * @param question the question
+     * @param callback receives every answer
+     * @throws IOException if the callback fails to write an answer
+     */
+    public void exportAnswersForQuestion(Question question, RowCallback<AnswerSummary> callback) throws IOException {
+        ScrollableResults results = entityManager.createNamedQuery("exportAnswersForQuestion", AnswerSummary.class)
+                .setParameter("question", question)
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(exportFetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (results.next()) {
+                callback.accept((AnswerSummary) results.get(0));
+            }
+        } finally {
+            results.close();
+        }
+    }
+}
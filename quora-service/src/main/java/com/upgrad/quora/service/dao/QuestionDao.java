@@ -1,11 +1,32 @@
 package com.upgrad.quora.service.dao;
 
+import com.upgrad.quora.service.cache.EntityCacheEvictor;
+import com.upgrad.quora.service.common.CountCursor;
+import com.upgrad.quora.service.common.PageCursor;
+import com.upgrad.quora.service.common.RowCallback;
+import com.upgrad.quora.service.common.SearchCursor;
 import com.upgrad.quora.service.entity.Question;
+import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.projection.QuestionIndexRow;
+import com.upgrad.quora.service.projection.QuestionSearchHit;
+import com.upgrad.quora.service.projection.QuestionSummary;
+import com.upgrad.quora.service.projection.QuestionVersion;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.CacheStoreMode;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.Collections;
 import java.util.List;
 
 
@@ -16,13 +37,41 @@ import java.util.List;
 public class QuestionDao {
 
     private static final String GETQUESTION_OF_SAME_OWNER = "getquestionOfSameOwner";
-    private static final String GET_ALL_QUESTIONS = "getAllQuestions";
-    private static final String GET_ALL_QUESTIONS_FOR_USER = "getAllQuestionsForUser";
+    private static final String GET_QUESTIONS_FIRST_PAGE = "getQuestionsFirstPage";
+    private static final String GET_QUESTIONS_PAGE_AFTER = "getQuestionsPageAfter";
+    private static final String GET_QUESTIONS_FOR_USER_FIRST_PAGE = "getQuestionsForUserFirstPage";
+    private static final String GET_QUESTIONS_FOR_USER_PAGE_AFTER = "getQuestionsForUserPageAfter";
     private static final String GET_QUESTION = "getQuestion";
+    private static final String EXPORT_QUESTIONS = "exportQuestions";
+    private static final String SEARCH_QUESTIONS_FIRST_PAGE = "searchQuestionsFirstPage";
+    private static final String SEARCH_QUESTIONS_PAGE_AFTER = "searchQuestionsPageAfter";
+    private static final String MAX_QUESTION_ID = "maxQuestionId";
+    private static final String QUESTION_INDEX_ROWS = "questionIndexRows";
+    private static final String GET_MOST_ANSWERED_QUESTIONS_FIRST_PAGE = "getMostAnsweredQuestionsFirstPage";
+    private static final String GET_MOST_ANSWERED_QUESTIONS_PAGE_AFTER = "getMostAnsweredQuestionsPageAfter";
+    private static final String GET_RECENTLY_ACTIVE_QUESTIONS_FIRST_PAGE = "getRecentlyActiveQuestionsFirstPage";
+    private static final String GET_RECENTLY_ACTIVE_QUESTIONS_PAGE_AFTER = "getRecentlyActiveQuestionsPageAfter";
+    private static final String GET_QUESTION_WITH_ANSWERS_FIRST_PAGE = "getQuestionWithAnswersFirstPage";
+    private static final String GET_QUESTION_WITH_ANSWERS_PAGE_AFTER = "getQuestionWithAnswersPageAfter";
+    private static final String QUESTION_IDS_ANSWERED_BY_USER = "questionIdsAnsweredByUser";
+    private static final String GET_QUESTION_VERSION = "getQuestionVersion";
+    private static final String CHANGE_ANSWERS_OF_QUESTION = "changeAnswersOfQuestion";
+    private static final String ADD_ANSWERS_TO_QUESTION = "addAnswersToQuestion";
+    private static final String REMOVE_ANSWER_FROM_QUESTION = "removeAnswerFromQuestion";
+    private static final String RECOUNT_ANSWERS_OF_QUESTIONS = "recountAnswersOfQuestions";
+
+    //ids per statement when the answers of many questions are counted again
+    private static final int RECOUNT_BATCH_SIZE = 1000;
 
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Value("${quora.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    @Autowired
+    private EntityCacheEvictor entityCacheEvictor;
+
 
     /**
      * method used for creating question instance in database.
@@ -36,37 +85,209 @@ public class QuestionDao {
     }
 
     /**
-     * method used for getting all questions for a specific users uuid.
+     * method used for getting one page of the questions of a user, newest first.
+     * The questions are ordered by (date, id), so that a page starts right after the last question of the previous page.
      *
-     * @param uuId authorized user uuid
+     * @param user   owner of the questions
+     * @param cursor position of the last question of the previous page, null for the first page
+     * @param limit  maximum number of questions to be returned
      * @return List of questions pertaining to the user
      */
-    public List<Question> getAllQuestionsForUser(String uuId) {
+    public List<Question> getQuestionsPageForUser(UserEntity user, PageCursor cursor, int limit) {
+        TypedQuery<Question> query = cursor == null
+                ? entityManager.createNamedQuery(GET_QUESTIONS_FOR_USER_FIRST_PAGE, Question.class)
+                : entityManager.createNamedQuery(GET_QUESTIONS_FOR_USER_PAGE_AFTER, Question.class)
+                .setParameter("date", cursor.getDate())
+                .setParameter("id", cursor.getId());
+        return query.setParameter("user", user).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * method used for getting one page of all the questions, newest first.
+     * The questions are ordered by (date, id), so that a page starts right after the last question of the previous page.
+     *
+     * @param cursor position of the last question of the previous page, null for the first page
+     * @param limit  maximum number of questions to be returned
+     * @return list of questions
+     */
+    public List<Question> getQuestionsPage(PageCursor cursor, int limit) {
+        TypedQuery<Question> query = cursor == null
+                ? entityManager.createNamedQuery(GET_QUESTIONS_FIRST_PAGE, Question.class)
+                : entityManager.createNamedQuery(GET_QUESTIONS_PAGE_AFTER, Question.class)
+                .setParameter("date", cursor.getDate())
+                .setParameter("id", cursor.getId());
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * method used for getting one page of all the questions, most answered first.
+     * The questions are ordered by (answer count, id), so that a page starts right after the last question of the previous page.
+     *
+     * @param cursor position of the last question of the previous page, null for the first page
+     * @param limit  maximum number of questions to be returned
+     * @return list of questions
+     */
+    public List<Question> getMostAnsweredQuestionsPage(CountCursor cursor, int limit) {
+        TypedQuery<Question> query = cursor == null
+                ? entityManager.createNamedQuery(GET_MOST_ANSWERED_QUESTIONS_FIRST_PAGE, Question.class)
+                : entityManager.createNamedQuery(GET_MOST_ANSWERED_QUESTIONS_PAGE_AFTER, Question.class)
+                .setParameter("answerCount", cursor.getCount())
+                .setParameter("id", cursor.getId());
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * method used for getting one page of the answered questions, most recently answered first.
+     * The questions are ordered by (date of the newest answer, id), so that a page starts right after the last question of the previous page.
+     *
+     * @param cursor position of the last question of the previous page, null for the first page
+     * @param limit  maximum number of questions to be returned
+     * @return list of questions
+     */
+    public List<Question> getRecentlyActiveQuestionsPage(PageCursor cursor, int limit) {
+        TypedQuery<Question> query = cursor == null
+                ? entityManager.createNamedQuery(GET_RECENTLY_ACTIVE_QUESTIONS_FIRST_PAGE, Question.class)
+                : entityManager.createNamedQuery(GET_RECENTLY_ACTIVE_QUESTIONS_PAGE_AFTER, Question.class)
+                .setParameter("date", cursor.getDate())
+                .setParameter("id", cursor.getId());
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * method used for reading all the questions, newest first, with a forward-only database cursor.
+     * The rows are fetched from the database in batches of the fetch size and handed to the callback one at a time,
+     * so the memory used does not grow with the number of questions.
+     *
+     * @param callback receives every question
+     * @throws IOException if the callback fails to write a question
+     */
+    public void exportQuestions(RowCallback<QuestionSummary> callback) throws IOException {
+        ScrollableResults results = entityManager.createNamedQuery(EXPORT_QUESTIONS, QuestionSummary.class)
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(exportFetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
         try {
-            return entityManager
-                    .createNamedQuery(GET_ALL_QUESTIONS_FOR_USER)
-                    .setParameter("uuid", uuId)
-                    .getResultList();
-        } catch (NoResultException e) {
-            return null;
+            while (results.next()) {
+                callback.accept((QuestionSummary) results.get(0));
+            }
+        } finally {
+            results.close();
         }
     }
 
     /**
-     * method used for getting all questions.
+     * method used for getting one page of the questions whose content or answers match a search text, best match first.
+     * The questions are ordered by (rank, id), so that a page starts right after the last question of the previous page.
      *
-     * @return list of all questions
+     * @param text   search text, its words are matched against the english search vectors of the questions and answers
+     * @param cursor position of the last question of the previous page, null for the first page
+     * @param limit  maximum number of questions to be returned
+     * @return list of matching questions with their rank
      */
-    public List<Question> getAllQuestions() {
-        try {
-            return entityManager
-                    .createNamedQuery(GET_ALL_QUESTIONS)
-                    .getResultList();
-        } catch (NoResultException e) {
-            return null;
+    @SuppressWarnings("unchecked")
+    public List<QuestionSearchHit> searchQuestions(String text, SearchCursor cursor, int limit) {
+        Query query = cursor == null
+                ? entityManager.createNamedQuery(SEARCH_QUESTIONS_FIRST_PAGE)
+                : entityManager.createNamedQuery(SEARCH_QUESTIONS_PAGE_AFTER)
+                .setParameter("rank", cursor.getRank())
+                .setParameter("id", cursor.getId());
+        return query.setParameter("text", text).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * method used for counting new answers of a question, with a single update of its row.
+     * The row lock taken by the update orders the concurrent answers of the question, so no answer is lost.
+     *
+     * @param questionId id of the answered question
+     * @param answers    number of new answers
+     * @param answeredAt date of the newest of the new answers
+     */
+    public void addAnswers(Integer questionId, int answers, ZonedDateTime answeredAt) {
+        updateAnswerActivity(entityManager.createNamedQuery(ADD_ANSWERS_TO_QUESTION)
+                .setParameter("answers", answers)
+                .setParameter("answeredAt", answeredAt)
+                .setParameter("id", questionId), Collections.singletonList(questionId));
+    }
+
+    /**
+     * method used for uncounting a deleted answer of a question, once the delete has been flushed.
+     *
+     * @param questionId id of the question of the deleted answer
+     */
+    public void removeAnswer(Integer questionId) {
+        entityManager.flush();
+        updateAnswerActivity(entityManager.createNamedQuery(REMOVE_ANSWER_FROM_QUESTION).setParameter("id", questionId), Collections.singletonList(questionId));
+    }
+
+    /**
+     * method used for recording that an answer of a question has been edited.
+     *
+     * @param questionId id of the question of the edited answer
+     */
+    public void changeAnswers(Integer questionId) {
+        updateAnswerActivity(entityManager.createNamedQuery(CHANGE_ANSWERS_OF_QUESTION).setParameter("id", questionId), Collections.singletonList(questionId));
+    }
+
+    /**
+     * method used for getting the ids of the questions of other users which a user has answered.
+     *
+     * @param user user who answered the questions
+     * @return ids of the questions
+     */
+    public List<Integer> getQuestionIdsAnsweredByUser(UserEntity user) {
+        return entityManager.createNamedQuery(QUESTION_IDS_ANSWERED_BY_USER, Integer.class)
+                .setParameter("user", user)
+                .getResultList();
+    }
+
+    /**
+     * method used for counting the answers of questions again, once the database has deleted some of them on its own.
+     *
+     * @param questionIds ids of the questions
+     */
+    public void recountAnswers(List<Integer> questionIds) {
+        entityManager.flush();
+        for (int from = 0; from < questionIds.size(); from += RECOUNT_BATCH_SIZE) {
+            final List<Integer> batch = questionIds.subList(from, Math.min(from + RECOUNT_BATCH_SIZE, questionIds.size()));
+            updateAnswerActivity(entityManager.createNamedQuery(RECOUNT_ANSWERS_OF_QUESTIONS).setParameter("ids", batch), batch);
         }
     }
 
+    /**
+     * The update statements are synchronized with an empty query space, so that hibernate invalidates no cache region
+     * on its own, and only the updated questions are evicted from the second-level cache. The one cached query over
+     * QUESTION looks questions up by uuid, which the updates never change, so no query result is invalidated.
+     */
+    private void updateAnswerActivity(Query query, List<Integer> questionIds) {
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace("").executeUpdate();
+        entityCacheEvictor.evictQuestions(questionIds);
+    }
+
+    /**
+     * method used for getting the highest question id, 0 if there is no question.
+     *
+     * @return highest question id
+     */
+    public int getMaxQuestionId() {
+        Integer maxId = entityManager.createNamedQuery(MAX_QUESTION_ID, Integer.class).getSingleResult();
+        return maxId == null ? 0 : maxId;
+    }
+
+    /**
+     * method used for reading the questions of an id range for the search index.
+     *
+     * @param fromId lowest id of the range
+     * @param toId   highest id of the range
+     * @return indexed columns of the questions in the range
+     */
+    public List<QuestionIndexRow> getQuestionIndexRows(int fromId, int toId) {
+        return entityManager.createNamedQuery(QUESTION_INDEX_ROWS, QuestionIndexRow.class)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .getResultList();
+    }
+
     /**
      * method used for getting question for the same owner
      *
@@ -84,14 +305,51 @@ public class QuestionDao {
         }
     }
 
+    /**
+     * method used for getting the version of a question and of its answers, without reading the question.
+     *
+     * @param questionUuId uuid of the question
+     * @return versions of the question, null if the question does not exist
+     */
+    public QuestionVersion getQuestionVersion(String questionUuId) {
+        try {
+            return entityManager.createNamedQuery(GET_QUESTION_VERSION, QuestionVersion.class)
+                    .setParameter("uuid", questionUuId)
+                    .getSingleResult();
+        } catch (NoResultException e) {
+            return null;
+        }
+    }
+
+    /**
+     * method used for getting a question with its author and one page of its answers with their authors, in a single query.
+     * The answers are outer joined in the order of (date, id), so that the question is returned even when the page has no answer.
+     *
+     * @param questionUuId uuid of the question
+     * @param cursor       position of the last answer of the previous page, null for the first page
+     * @param limit        maximum number of answers to be returned
+     * @return rows of the question, an answer or null, and the author of the answer, empty if the question does not exist
+     */
+    public List<Object[]> getQuestionWithAnswers(String questionUuId, PageCursor cursor, int limit) {
+        TypedQuery<Object[]> query = cursor == null
+                ? entityManager.createNamedQuery(GET_QUESTION_WITH_ANSWERS_FIRST_PAGE, Object[].class)
+                : entityManager.createNamedQuery(GET_QUESTION_WITH_ANSWERS_PAGE_AFTER, Object[].class)
+                .setParameter("date", cursor.getDate())
+                .setParameter("id", cursor.getId());
+        return query.setParameter("uuid", questionUuId).setMaxResults(limit).getResultList();
+    }
+
     /**
      * method used for editing the question details in database.
+     * The update is flushed here, so that an update of a question changed since it was read fails in this call.
      *
      * @param question question object to be updated
+     * @return updated question
      */
     public Question editQuestion(Question question) {
-        entityManager.persist(question);
-        return question;
+        Question editedQuestion = entityManager.merge(question);
+        entityManager.flush();
+        return editedQuestion;
     }
 
     /**
@@ -102,4 +360,21 @@ public class QuestionDao {
     public void deleteQuestion(Question question) {
         entityManager.remove(question);
     }
-}
\ No newline at end of file
+
+    /**
+     * method used by bulk operations for keeping the written entities out of the second-level cache,
+     * so that the imported rows do not evict the entries which are being read.
+     */
+    public void bypassSecondLevelCache() {
+        entityManager.setProperty("javax.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+    }
+
+    /**
+     * method used by bulk operations for sending the pending inserts and detaching the written entities,
+     * so that an entity manager kept open for the whole request does not grow with the number of imported rows.
+     */
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
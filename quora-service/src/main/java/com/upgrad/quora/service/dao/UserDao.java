@@ -1,12 +1,20 @@
 package com.upgrad.quora.service.dao;/* Create by Mansi Elhance */
 
+import com.upgrad.quora.service.common.TokenDigest;
 import com.upgrad.quora.service.entity.UserAuthEntity;
 import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.entity.UserRevocationEntity;
+import com.upgrad.quora.service.projection.SignedOutSession;
+import com.upgrad.quora.service.projection.UserProfile;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
 
 
 @Repository
@@ -20,14 +28,6 @@ public class UserDao {
         return userEntity;
     }
 
-    public UserEntity getUser(final String userUuid){
-        try{
-            return entityManager.createNamedQuery("userByUuid",UserEntity.class).setParameter("uuid",userUuid).getSingleResult();
-        } catch (NoResultException nre){
-            return null;
-        }
-    }
-
     public UserEntity getUserByEmail(final String email){
         try{
             return entityManager.createNamedQuery("userByEmail",UserEntity.class).setParameter("email",email).getSingleResult();
@@ -56,6 +56,20 @@ public class UserDao {
         }
     }
 
+    /**
+     * method used for reading the profile of a user, without its password and salt.
+     *
+     * @param uuid uuid of the user
+     * @return profile or null if there is no user with this uuid
+     */
+    public UserProfile getUserProfile(final String uuid){
+        try{
+            return entityManager.createNamedQuery("userProfileByUuid",UserProfile.class).setParameter("uuid",uuid).getSingleResult();
+        } catch (NoResultException nre){
+            return null;
+        }
+    }
+
     public UserAuthEntity createAuthToken(final UserAuthEntity userAuthTokenEntity) {
         entityManager.persist(userAuthTokenEntity);
         return userAuthTokenEntity;
@@ -67,12 +81,29 @@ public class UserDao {
 
     public UserAuthEntity getUserAuthToken(final String access_token){
         try {
-            return entityManager.createNamedQuery("userAuthTokenByAccessToken",UserAuthEntity.class).setParameter("access_token",access_token).getSingleResult();
+            UserAuthEntity userAuthEntity = entityManager.createNamedQuery("userAuthTokenByAccessToken",UserAuthEntity.class)
+                    .setParameter("access_token_digest",TokenDigest.of(access_token).getBytes()).getSingleResult();
+            //only the digest of the access token is stored, the session is handed out with the token it was looked up by
+            userAuthEntity.setAccess_token(access_token);
+            return userAuthEntity;
         } catch (NoResultException nre){
             return null;
         }
     }
 
+    /**
+     * method used for setting the logout time of a session without reading it first.
+     * The database stamps the session with the time the sign out is written, which the other servers poll.
+     * A session which has already been signed out keeps its first logout time.
+     *
+     * @param access_token_digest digest of the access token of the session
+     * @param logout_at           logout time of the session
+     * @return number of sessions signed out, 0 or 1
+     */
+    public int signOut(final TokenDigest access_token_digest, final ZonedDateTime logout_at){
+        return entityManager.createNamedQuery("signOutAccessToken").setParameter("access_token_digest",access_token_digest.getBytes()).setParameter("logout_at",logout_at).executeUpdate();
+    }
+
     public String deleteUser(final UserEntity userEntity){
         String uuid=userEntity.getUuid();
         entityManager.remove(userEntity);
@@ -87,5 +118,72 @@ public class UserDao {
         }
     }
 
-}
+    public List<SignedOutSession> getSignedOutSessions(final ZonedDateTime since, final ZonedDateTime now){
+        return entityManager.createNamedQuery("signedOutSessionsSince",SignedOutSession.class).setParameter("since",since).setParameter("now",now).getResultList();
+    }
+
+    public void createUserRevocation(final UserRevocationEntity userRevocationEntity){
+        entityManager.persist(userRevocationEntity);
+    }
+
+    public List<UserRevocationEntity> getUserRevocations(final ZonedDateTime since){
+        return entityManager.createNamedQuery("userRevocationsSince",UserRevocationEntity.class).setParameter("since",since).getResultList();
+    }
+
+    /**
+     * method used for deleting the user revocations older than a given time, once every token they apply to has expired.
+     *
+     * @param revokedBefore revocations made before this time are deleted
+     * @return number of revocations deleted
+     */
+    public int removeUserRevocations(final ZonedDateTime revokedBefore){
+        return entityManager.createNamedQuery("deleteUserRevocationsBefore").setParameter("revokedBefore",revokedBefore).executeUpdate();
+    }
 
+    /**
+     * method used for deleting, or moving to USER_AUTH_ARCHIVE, one batch of the sessions which expired before a given time.
+     *
+     * @param expiredBefore sessions which expired before this time are removed
+     * @param batchSize     most sessions removed by the statement
+     * @param archive       true to copy the removed sessions to USER_AUTH_ARCHIVE
+     * @return number of sessions removed
+     */
+    public int removeExpiredSessions(final ZonedDateTime expiredBefore, final int batchSize, final boolean archive){
+        return entityManager.createNamedQuery(archive ? "archiveExpiredSessions" : "deleteExpiredSessions")
+                .setParameter("expiredBefore",expiredBefore).setParameter("batchSize",batchSize)
+                .unwrap(NativeQuery.class).addSynchronizedEntityClass(UserAuthEntity.class).executeUpdate();
+    }
+
+    /**
+     * method used for getting the names of the monthly partitions of USER_AUTH, none if the table is not partitioned.
+     *
+     * @return names of the partitions, user_auth_pYYYYMM
+     */
+    public List<String> getSessionPartitions(){
+        return entityManager.createNamedQuery("sessionPartitions").getResultList();
+    }
+
+    /**
+     * method used for creating the partition of USER_AUTH holding the sessions which expire in [from, to).
+     * The partition names are built from dates only, never from user input.
+     *
+     * @param partition name of the partition
+     * @param from      first day of the partition
+     * @param to        first day after the partition
+     */
+    public void createSessionPartition(final String partition, final LocalDate from, final LocalDate to){
+        entityManager.createNativeQuery("create table if not exists " + partition + " partition of user_auth for values from ('" + from + "') to ('" + to + "')")
+                .unwrap(NativeQuery.class).addSynchronizedEntityClass(UserAuthEntity.class).executeUpdate();
+    }
+
+    /**
+     * method used for removing a partition of USER_AUTH with all its sessions at once.
+     *
+     * @param partition name of the partition
+     * @param archive   true to keep the partition as a table of its own, detached from USER_AUTH, instead of dropping it
+     */
+    public void removeSessionPartition(final String partition, final boolean archive){
+        entityManager.createNativeQuery(archive ? "alter table user_auth detach partition " + partition : "drop table " + partition)
+                .unwrap(NativeQuery.class).addSynchronizedEntityClass(UserAuthEntity.class).executeUpdate();
+    }
+}
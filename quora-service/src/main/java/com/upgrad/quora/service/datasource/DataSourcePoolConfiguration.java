@@ -0,0 +1,36 @@
+package com.upgrad.quora.service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the HikariCP connection pool from the "spring.datasource" connection settings and the "quora.datasource.pool"
+ * pool settings. The pool is started on its first connection, after the pool metrics have been bound to it.
+ */
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, DataSourcePoolProperties.class})
+public class DataSourcePoolConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSource(final DataSourceProperties dataSourceProperties, final DataSourcePoolProperties pool,
+                                       @Value("${quora.export.threads:8}") final int exportThreads) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        //the streamed exports hold a connection each while they run, they get connections of their own on top of the requests
+        final int maximumPoolSize = pool.resolveMaximumPoolSize(exportThreads);
+        dataSource.setPoolName(pool.getName());
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setMinimumIdle(pool.getMinimumIdle() >= 0 ? pool.getMinimumIdle() : maximumPoolSize);
+        dataSource.setConnectionTimeout(pool.getConnectionTimeoutMs());
+        dataSource.setIdleTimeout(pool.getIdleTimeoutMs());
+        dataSource.setMaxLifetime(pool.getMaxLifetimeMs());
+        dataSource.setLeakDetectionThreshold(pool.getLeakDetectionThresholdMs());
+        dataSource.addDataSourceProperty("prepareThreshold", pool.getPrepareThreshold());
+        dataSource.addDataSourceProperty("preparedStatementCacheQueries", pool.getPreparedStatementCacheQueries());
+        dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB", pool.getPreparedStatementCacheSizeMib());
+        return dataSource;
+    }
+}
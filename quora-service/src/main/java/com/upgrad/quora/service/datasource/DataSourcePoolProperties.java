@@ -0,0 +1,154 @@
+package com.upgrad.quora.service.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sizing and timeouts of the database connection pool, and the prepared statement caching of the PostgreSQL driver,
+ * bound from the "quora.datasource.pool" properties.
+ */
+@ConfigurationProperties(prefix = "quora.datasource.pool")
+public class DataSourcePoolProperties {
+
+    /**
+     * Name of the pool, used as the "pool" tag of the pool metrics.
+     */
+    private String name = "quora";
+
+    /**
+     * Maximum number of connections, 0 for two connections per processor plus one, plus one per export thread.
+     * A streamed export holds its connection for as long as it runs, up to quora.export.timeout-ms, so that
+     * quora.export.threads exports running at once take as many connections away from the requests.
+     * A maximum configured explicitly must hence leave enough connections to the requests beyond the export threads.
+     */
+    private int maximumPoolSize = 0;
+
+    /**
+     * Connections kept open when the pool is idle, -1 for a fixed pool of maximumPoolSize connections.
+     */
+    private int minimumIdle = -1;
+
+    /**
+     * Milliseconds a request waits for a connection before it fails.
+     */
+    private long connectionTimeoutMs = 3000;
+
+    /**
+     * Milliseconds after which an idle connection above minimumIdle is closed.
+     */
+    private long idleTimeoutMs = 600000;
+
+    /**
+     * Milliseconds after which a connection is replaced, shorter than any connection time limit of the database.
+     */
+    private long maxLifetimeMs = 1800000;
+
+    /**
+     * Milliseconds a connection may be held before a possible leak is logged, 0 to disable.
+     */
+    private long leakDetectionThresholdMs = 60000;
+
+    /**
+     * Executions of a statement on a connection after which the driver prepares it on the server.
+     */
+    private int prepareThreshold = 3;
+
+    /**
+     * Statements whose server side preparation is kept by the driver, per connection.
+     */
+    private int preparedStatementCacheQueries = 256;
+
+    /**
+     * Megabytes of the prepared statement cache of the driver, per connection.
+     */
+    private int preparedStatementCacheSizeMib = 5;
+
+    /**
+     * method used for getting the maximum pool size, derived from the processors and the export threads when it is not configured.
+     *
+     * @param exportThreads number of threads running the streamed exports, each holding one connection
+     * @return maximum number of connections
+     */
+    public int resolveMaximumPoolSize(final int exportThreads) {
+        return maximumPoolSize > 0 ? maximumPoolSize : Runtime.getRuntime().availableProcessors() * 2 + 1 + exportThreads;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(int minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    public long getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+
+    public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    public long getMaxLifetimeMs() {
+        return maxLifetimeMs;
+    }
+
+    public void setMaxLifetimeMs(long maxLifetimeMs) {
+        this.maxLifetimeMs = maxLifetimeMs;
+    }
+
+    public long getLeakDetectionThresholdMs() {
+        return leakDetectionThresholdMs;
+    }
+
+    public void setLeakDetectionThresholdMs(long leakDetectionThresholdMs) {
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+    }
+
+    public int getPrepareThreshold() {
+        return prepareThreshold;
+    }
+
+    public void setPrepareThreshold(int prepareThreshold) {
+        this.prepareThreshold = prepareThreshold;
+    }
+
+    public int getPreparedStatementCacheQueries() {
+        return preparedStatementCacheQueries;
+    }
+
+    public void setPreparedStatementCacheQueries(int preparedStatementCacheQueries) {
+        this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+    }
+
+    public int getPreparedStatementCacheSizeMib() {
+        return preparedStatementCacheSizeMib;
+    }
+
+    public void setPreparedStatementCacheSizeMib(int preparedStatementCacheSizeMib) {
+        this.preparedStatementCacheSizeMib = preparedStatementCacheSizeMib;
+    }
+}
@@ -1,5 +1,9 @@
 package com.upgrad.quora.service.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.QueryHints;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -8,20 +12,32 @@ import java.time.ZonedDateTime;
 /**
  * POJO class for ANSWER table.
  * Updates for Answer entity
+ * The user and the question are loaded lazily, the queries which need them fetch them with a join.
+ * Answers are kept in the second-level cache, and the lookup by uuid in the query cache.
+ * The version is incremented by hibernate on every update of the answer, so that a stale edit fails instead of
+ * overwriting a newer one.
  */
 @Entity
 @Table(name = "answer", schema = "public")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "answer")
 @NamedQueries(
         {
-                @NamedQuery(name = "getAnswerForUuId", query = "select ans from Answer ans where uuid=:uuid"),
-                @NamedQuery(name = "getAnsersForQuestion", query = "select ans from Answer ans where ans.question.uuid=:uuid")
+                @NamedQuery(name = "getAnswerForUuId", query = "select ans from Answer ans join fetch ans.user where ans.uuid=:uuid",
+                        hints = {@QueryHint(name = QueryHints.CACHEABLE, value = "true"), @QueryHint(name = QueryHints.CACHE_REGION, value = "lookups")}),
+                @NamedQuery(name = "answerIdsForQuestion", query = "select ans.id from Answer ans where ans.question = :question"),
+                @NamedQuery(name = "getAnsersForQuestion", query = "select ans from Answer ans join fetch ans.question qt where qt.uuid=:uuid"),
+                @NamedQuery(name = "exportAnswersForQuestion", query = "select new com.upgrad.quora.service.projection.AnswerSummary(ans.uuid, ans.answer, qt.content) from Answer ans join ans.question qt where qt = :question order by ans.id"),
+                @NamedQuery(name = "maxAnswerId", query = "select max(ans.id) from Answer ans"),
+                @NamedQuery(name = "answerIndexRows", query = "select new com.upgrad.quora.service.projection.AnswerIndexRow(ans.id, ans.question.id, ans.user.user_id, ans.answer) from Answer ans where ans.id between :fromId and :toId")
         }
 )
 public class Answer {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "answer_id_generator")
+    @SequenceGenerator(name = "answer_id_generator", sequenceName = "answer_id_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "uuid")
@@ -37,14 +53,18 @@ public class Answer {
     @Column(name = "date")
     private ZonedDateTime date;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private UserEntity user;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "question_id")
     private Question question;
 
+    @Version
+    @Column(name = "version")
+    private Integer version;
+
     /**
      * Accessore method for property id
      *
@@ -152,4 +172,41 @@ public class Answer {
     public void setQuestion(Question question) {
         this.question = question;
     }
-}
\ No newline at end of file
+
+    /**
+     * Accessor method for property version
+     *
+     * @return version value, incremented by every update of the answer
+     */
+    public Integer getVersion() {
+        return version;
+    }
+
+    /**
+     * Answers are equal when they have the same uuid, which is assigned when the answer is created.
+     * The getters are used, so that a lazily loaded proxy equals the answer it stands for.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Answer)) {
+            return false;
+        }
+        return uuid != null && uuid.equals(((Answer) obj).getUuid());
+    }
+
+    @Override
+    public int hashCode() {
+        return uuid == null ? 0 : uuid.hashCode();
+    }
+
+    /**
+     * The user and the question are left out, so that printing an answer never loads them.
+     */
+    @Override
+    public String toString() {
+        return "Answer{id=" + id + ", uuid=" + uuid + ", date=" + date + "}";
+    }
+}
@@ -1,9 +1,9 @@
 package com.upgrad.quora.service.entity;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.ToStringBuilder;
-import org.apache.commons.lang3.builder.ToStringStyle;
+import com.upgrad.quora.service.projection.QuestionSearchHit;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.QueryHints;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -13,19 +13,81 @@ import java.time.ZonedDateTime;
 /**
  * POJO defined for question table.
  * Defines attributes and relationship for this table.
+ * The user is loaded lazily, the queries which need it fetch it with a join.
+ * Questions are kept in the second-level cache, and the lookup by uuid in the query cache.
+ * The search_vector column is not mapped, it is written by a database trigger and only read by the search queries.
+ * The answer count and the date of the newest answer are only written by the update statements of the answer paths,
+ * which increment them in place, hence they are neither inserted nor updated with the question.
+ * The version is incremented by hibernate on every update of the question, so that a stale edit fails instead of
+ * overwriting a newer one. The answers version is incremented in place by the same answer paths, so that the version
+ * of the question and of its answers can be read from the question row alone.
  */
 @Entity
 @Table(name = "question", schema = "public")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "question")
 @NamedQueries({
-        @NamedQuery(name = "getAllQuestionsForUser", query = "select qt from Question qt where qt.user.uuid=:uuid"),
-        @NamedQuery(name = "getAllQuestions", query = "select qt from Question qt"),
-        @NamedQuery(name = "getQuestion", query = "select qt from Question qt where qt.uuid=:uuid")
+        @NamedQuery(name = "getQuestionsFirstPage", query = "select qt from Question qt order by qt.date desc, qt.id desc"),
+        @NamedQuery(name = "getQuestionsPageAfter", query = "select qt from Question qt where qt.date <= :date and (qt.date < :date or qt.id < :id) order by qt.date desc, qt.id desc"),
+        @NamedQuery(name = "getQuestionsForUserFirstPage", query = "select qt from Question qt where qt.user = :user order by qt.date desc, qt.id desc"),
+        @NamedQuery(name = "getQuestionsForUserPageAfter", query = "select qt from Question qt where qt.user = :user and qt.date <= :date and (qt.date < :date or qt.id < :id) order by qt.date desc, qt.id desc"),
+        @NamedQuery(name = "getQuestion", query = "select qt from Question qt join fetch qt.user where qt.uuid=:uuid",
+                hints = {@QueryHint(name = QueryHints.CACHEABLE, value = "true"), @QueryHint(name = QueryHints.CACHE_REGION, value = "lookups")}),
+        @NamedQuery(name = "exportQuestions", query = "select new com.upgrad.quora.service.projection.QuestionSummary(qt.uuid, qt.content) from Question qt order by qt.date desc, qt.id desc"),
+        @NamedQuery(name = "getMostAnsweredQuestionsFirstPage", query = "select qt from Question qt order by qt.answerCount desc, qt.id desc"),
+        @NamedQuery(name = "getMostAnsweredQuestionsPageAfter", query = "select qt from Question qt where qt.answerCount <= :answerCount and (qt.answerCount < :answerCount or qt.id < :id) order by qt.answerCount desc, qt.id desc"),
+        @NamedQuery(name = "getRecentlyActiveQuestionsFirstPage", query = "select qt from Question qt where qt.lastAnswerAt is not null order by qt.lastAnswerAt desc, qt.id desc"),
+        @NamedQuery(name = "getRecentlyActiveQuestionsPageAfter", query = "select qt from Question qt where qt.lastAnswerAt is not null and qt.lastAnswerAt <= :date and (qt.lastAnswerAt < :date or qt.id < :id) order by qt.lastAnswerAt desc, qt.id desc"),
+        @NamedQuery(name = "getQuestionWithAnswersFirstPage", query = "select qt, ans, au from Question qt join fetch qt.user"
+                + " left join Answer ans on ans.question = qt left join ans.user au where qt.uuid = :uuid order by ans.date, ans.id"),
+        @NamedQuery(name = "getQuestionWithAnswersPageAfter", query = "select qt, ans, au from Question qt join fetch qt.user"
+                + " left join Answer ans on ans.question = qt and (ans.date > :date or (ans.date = :date and ans.id > :id)) left join ans.user au"
+                + " where qt.uuid = :uuid order by ans.date, ans.id"),
+        @NamedQuery(name = "getQuestionVersion", query = "select new com.upgrad.quora.service.projection.QuestionVersion(qt.version, qt.answersVersion) from Question qt where qt.uuid = :uuid"),
+        @NamedQuery(name = "questionIdsAnsweredByUser", query = "select distinct ans.question.id from Answer ans where ans.user = :user and ans.question.user <> :user"),
+        @NamedQuery(name = "maxQuestionId", query = "select max(qt.id) from Question qt"),
+        @NamedQuery(name = "questionIndexRows", query = "select new com.upgrad.quora.service.projection.QuestionIndexRow(qt.id, qt.uuid, qt.content, qt.user.user_id) from Question qt where qt.id between :fromId and :toId")
 }
 )
+@NamedNativeQueries({
+        @NamedNativeQuery(name = "searchQuestionsFirstPage", query = Question.SEARCH_QUESTIONS + " order by hit.rank desc, qt.id desc",
+                resultSetMapping = "questionSearchHit"),
+        @NamedNativeQuery(name = "searchQuestionsPageAfter", query = Question.SEARCH_QUESTIONS + " where hit.rank < :rank or (hit.rank = :rank and qt.id < :id) order by hit.rank desc, qt.id desc",
+                resultSetMapping = "questionSearchHit"),
+        @NamedNativeQuery(name = "addAnswersToQuestion", query = "update question set answer_count = answer_count + :answers, answers_version = answers_version + 1,"
+                + " last_answer_at = case when last_answer_at is null or last_answer_at < :answeredAt then :answeredAt else last_answer_at end where id = :id"),
+        @NamedNativeQuery(name = "removeAnswerFromQuestion", query = "update question set answer_count = answer_count - 1, answers_version = answers_version + 1,"
+                + " last_answer_at = (select max(a.date) from answer a where a.question_id = question.id) where id = :id"),
+        @NamedNativeQuery(name = "recountAnswersOfQuestions", query = "update question set answers_version = answers_version + 1, answer_count = (select count(*) from answer a where a.question_id = question.id),"
+                + " last_answer_at = (select max(a.date) from answer a where a.question_id = question.id) where id in (:ids)"),
+        @NamedNativeQuery(name = "changeAnswersOfQuestion", query = "update question set answers_version = answers_version + 1 where id = :id")
+})
+@SqlResultSetMapping(name = "questionSearchHit", classes = @ConstructorResult(targetClass = QuestionSearchHit.class, columns = {
+        @ColumnResult(name = "id", type = Integer.class),
+        @ColumnResult(name = "uuid", type = String.class),
+        @ColumnResult(name = "content", type = String.class),
+        @ColumnResult(name = "rank", type = Double.class)
+}))
 public class Question {
+
+    /**
+     * Questions whose content or answers match the search text, found with the GIN indexes of the search vectors.
+     * A question is ranked by the rank of its content plus half the rank of its best matching answer.
+     */
+    static final String SEARCH_QUESTIONS = "select qt.id, qt.uuid, qt.content, hit.rank from ("
+            + " select matched.question_id, cast(max(matched.question_rank) + 0.5 * max(matched.answer_rank) as double precision) as rank from ("
+            + " select q.id as question_id, ts_rank(q.search_vector, search.query) as question_rank, cast(0 as real) as answer_rank"
+            + " from question q, plainto_tsquery('pg_catalog.english', :text) as search(query) where q.search_vector @@ search.query"
+            + " union all"
+            + " select a.question_id, cast(0 as real), ts_rank(a.search_vector, search.query)"
+            + " from answer a, plainto_tsquery('pg_catalog.english', :text) as search(query) where a.search_vector @@ search.query"
+            + " ) matched group by matched.question_id"
+            + " ) hit join question qt on qt.id = hit.question_id";
+
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_id_generator")
+    @SequenceGenerator(name = "question_id_generator", sequenceName = "question_id_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "uuid")
@@ -41,10 +103,23 @@ public class Question {
     @Column(name = "date")
     private ZonedDateTime date;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private UserEntity user;
 
+    @Column(name = "answer_count", insertable = false, updatable = false)
+    private int answerCount;
+
+    @Column(name = "last_answer_at", insertable = false, updatable = false)
+    private ZonedDateTime lastAnswerAt;
+
+    @Version
+    @Column(name = "version")
+    private Integer version;
+
+    @Column(name = "answers_version", insertable = false, updatable = false)
+    private int answersVersion;
+
     public Integer getId() {
         return id;
     }
@@ -85,18 +160,47 @@ public class Question {
         this.user = user;
     }
 
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    public ZonedDateTime getLastAnswerAt() {
+        return lastAnswerAt;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public int getAnswersVersion() {
+        return answersVersion;
+    }
+
+    /**
+     * Questions are equal when they have the same uuid, which is assigned when the question is created.
+     * The getters are used, so that a lazily loaded proxy equals the question it stands for.
+     */
     @Override
     public boolean equals(Object obj) {
-        return new EqualsBuilder().append(this, obj).isEquals();
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Question)) {
+            return false;
+        }
+        return uuid != null && uuid.equals(((Question) obj).getUuid());
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(this).hashCode();
+        return uuid == null ? 0 : uuid.hashCode();
     }
 
+    /**
+     * The user is left out, so that printing a question never loads it.
+     */
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this, ToStringStyle.MULTI_LINE_STYLE);
+        return "Question{id=" + id + ", uuid=" + uuid + ", date=" + date + "}";
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.upgrad.quora.service.entity;/* Create by Mansi Elhance */
 
+import com.upgrad.quora.service.common.TokenDigest;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -9,19 +10,39 @@ import javax.validation.constraints.Size;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 
 @Entity
 @Table(name="user_auth")
 @NamedQueries({
-        @NamedQuery(name = "userAuthTokenByAccessToken", query = "select ut from UserAuthEntity ut where ut.access_token = :access_token "),
+        @NamedQuery(name = "userAuthTokenByAccessToken", query = "select ut from UserAuthEntity ut join fetch ut.user_id where ut.access_token_digest = :access_token_digest "),
         //Deep code
-        @NamedQuery(name="userAuthTokenByUuid",query="select ut from UserAuthEntity ut where ut.uuid = :uuid")
+        @NamedQuery(name="userAuthTokenByUuid",query="select ut from UserAuthEntity ut join fetch ut.user_id where ut.uuid = :uuid"),
+        @NamedQuery(name = "signedOutSessionsSince", query = "select new com.upgrad.quora.service.projection.SignedOutSession(ut.access_token_digest, ut.expires_at, ut.revoked_at)"
+                + " from UserAuthEntity ut where ut.revoked_at >= :since and ut.expires_at > :now"),
+        //revoked_at is set by the database when the sign out is written, a session inserted signed out by the same flush included
+        @NamedQuery(name = "signOutAccessToken", query = "update UserAuthEntity ut set ut.logout_at = :logout_at, ut.revoked_at = current_timestamp"
+                + " where ut.access_token_digest = :access_token_digest and ut.revoked_at is null")
+})
+@NamedNativeQueries({
+        @NamedNativeQuery(name = "deleteExpiredSessions", query = "delete from user_auth where id in"
+                + " (select id from user_auth where expires_at < :expiredBefore order by expires_at limit :batchSize)"),
+        @NamedNativeQuery(name = "archiveExpiredSessions", query = "with expired as (delete from user_auth where id in"
+                + " (select id from user_auth where expires_at < :expiredBefore order by expires_at limit :batchSize)"
+                + " returning " + UserAuthEntity.ARCHIVED_COLUMNS + ")"
+                + " insert into user_auth_archive (" + UserAuthEntity.ARCHIVED_COLUMNS + ") select " + UserAuthEntity.ARCHIVED_COLUMNS + " from expired"),
+        @NamedNativeQuery(name = "sessionPartitions", query = "select cast(c.relname as varchar) from pg_inherits i join pg_class c on c.oid = i.inhrelid"
+                + " join pg_class p on p.oid = i.inhparent where p.relname = 'user_auth' and c.relname like 'user\\_auth\\_p%'")
 })
 public class UserAuthEntity implements Serializable {
 
+    //columns copied to USER_AUTH_ARCHIVE when expired sessions are archived instead of deleted
+    static final String ARCHIVED_COLUMNS = "id, uuid, user_id, access_token_digest, expires_at, login_at, logout_at";
+
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_auth_id_generator")
+    @SequenceGenerator(name = "user_auth_id_generator", sequenceName = "user_auth_id_seq", allocationSize = 50)
     private BigInteger id;
 
     @Column(name = "uuid")
@@ -34,9 +55,13 @@ public class UserAuthEntity implements Serializable {
     @OnDelete(action = OnDeleteAction.CASCADE)
     private UserEntity user_id;
 
-    @Column(name = "access_token")
+    //only the SHA-256 digest of the access token is stored, the token itself is known to the session in memory only
+    @Column(name = "access_token_digest")
     @NotNull
-    @Size(max = 500)
+    @Size(min = TokenDigest.LENGTH, max = TokenDigest.LENGTH)
+    private byte[] access_token_digest;
+
+    @Transient
     private String access_token;
 
     @Column(name = "expires_at")
@@ -50,6 +75,10 @@ public class UserAuthEntity implements Serializable {
     @Column(name = "logout_at")
     private ZonedDateTime logout_at;
 
+    //time the sign out was written to USER_AUTH, polled by the revocation refresh of the other servers
+    @Column(name = "revoked_at")
+    private ZonedDateTime revoked_at;
+
     public BigInteger getId() {
         return id;
     }
@@ -79,8 +108,16 @@ public class UserAuthEntity implements Serializable {
         return access_token;
     }
 
+    /**
+     * Sets the access token of the session together with its digest.
+     */
     public void setAccess_token(String access_token) {
         this.access_token = access_token;
+        this.access_token_digest = TokenDigest.of(access_token).getBytes();
+    }
+
+    public byte[] getAccess_token_digest() {
+        return access_token_digest;
     }
 
     public ZonedDateTime getExpires_at() {
@@ -106,5 +143,39 @@ public class UserAuthEntity implements Serializable {
     public void setLogout_at(ZonedDateTime logout_at) {
         this.logout_at = logout_at;
     }
-}
 
+    public ZonedDateTime getRevoked_at() {
+        return revoked_at;
+    }
+
+    public void setRevoked_at(ZonedDateTime revoked_at) {
+        this.revoked_at = revoked_at;
+    }
+
+    /**
+     * Sessions are equal when they have the same access token digest, the uuid is the uuid of the user and is shared by all the sessions of a user.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof UserAuthEntity)) {
+            return false;
+        }
+        return access_token_digest != null && Arrays.equals(access_token_digest, ((UserAuthEntity) obj).getAccess_token_digest());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(access_token_digest);
+    }
+
+    /**
+     * The access token and its digest are left out, so that they are never written to a log.
+     */
+    @Override
+    public String toString() {
+        return "UserAuthEntity{id=" + id + ", uuid=" + uuid + ", login_at=" + login_at + ", expires_at=" + expires_at + ", logout_at=" + logout_at + "}";
+    }
+}
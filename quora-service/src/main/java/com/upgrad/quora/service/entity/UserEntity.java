@@ -1,17 +1,28 @@
 package com.upgrad.quora.service.entity;/* Create by Mansi Elhance */
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.QueryHints;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.io.Serializable;
 
+/**
+ * Users are kept in the second-level cache, and the lookup by uuid in the query cache.
+ * Profiles are read as UserProfile projections, without the password and the salt.
+ */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @NamedQueries(
         {
-                @NamedQuery(name = "userByUuid", query = "select u from UserEntity u where u.uuid = :uuid"),
+                @NamedQuery(name = "userByUuid", query = "select u from UserEntity u where u.uuid = :uuid",
+                        hints = {@QueryHint(name = QueryHints.CACHEABLE, value = "true"), @QueryHint(name = QueryHints.CACHE_REGION, value = "lookups")}),
+                @NamedQuery(name = "userProfileByUuid", query = "select new com.upgrad.quora.service.projection.UserProfile(u.uuid, u.firstName, u.lastName, u.username, u.email, u.contactNumber, u.dob, u.country, u.aboutme)"
+                        + " from UserEntity u where u.uuid = :uuid"),
                 @NamedQuery(name = "userByEmail", query = "select u from UserEntity u where u.email =:email"),
                 @NamedQuery(name = "userByUsername", query = "select u from UserEntity u where u.username =:username")
         }
@@ -20,7 +31,8 @@ public class UserEntity implements Serializable {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_generator")
+    @SequenceGenerator(name = "user_id_generator", sequenceName = "users_id_seq", allocationSize = 50)
     private Integer user_id;
 
     @Column(name = "uuid")
@@ -76,11 +88,6 @@ public class UserEntity implements Serializable {
     @Size(max = 30)
     private String contactNumber;
 
-    @Override
-    public boolean equals(Object obj) {
-        return new EqualsBuilder().append(this, obj).isEquals();
-    }
-
     public Integer getUser_id() {
         return user_id;
     }
@@ -184,4 +191,32 @@ public class UserEntity implements Serializable {
     public void setContactNumber(String contactNumber) {
         this.contactNumber = contactNumber;
     }
+
+    /**
+     * Users are equal when they have the same uuid, which is assigned on sign up.
+     * The getters are used, so that a lazily loaded proxy equals the user it stands for.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof UserEntity)) {
+            return false;
+        }
+        return uuid != null && uuid.equals(((UserEntity) obj).getUuid());
+    }
+
+    @Override
+    public int hashCode() {
+        return uuid == null ? 0 : uuid.hashCode();
+    }
+
+    /**
+     * The password, the salt and the personal details are left out.
+     */
+    @Override
+    public String toString() {
+        return "UserEntity{id=" + user_id + ", uuid=" + uuid + ", username=" + username + ", role=" + role + "}";
+    }
 }
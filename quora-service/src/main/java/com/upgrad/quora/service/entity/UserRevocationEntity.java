@@ -0,0 +1,60 @@
+package com.upgrad.quora.service.entity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.time.ZonedDateTime;
+
+/**
+ * Revocation of every token issued to a user before revoked_at, e.g. when the user is deleted.
+ * The stateless token verification of every server picks the revocations up from USER_REVOCATION,
+ * as the sessions of a deleted user are gone from USER_AUTH along with the user.
+ */
+@Entity
+@Table(name = "user_revocation")
+@NamedQueries({
+        @NamedQuery(name = "userRevocationsSince", query = "select ur from UserRevocationEntity ur where ur.revoked_at >= :since"),
+        @NamedQuery(name = "deleteUserRevocationsBefore", query = "delete from UserRevocationEntity ur where ur.revoked_at < :revokedBefore")
+})
+public class UserRevocationEntity implements Serializable {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private BigInteger id;
+
+    @Column(name = "user_uuid")
+    @NotNull
+    @Size(max = 200)
+    private String user_uuid;
+
+    @Column(name = "revoked_at")
+    @NotNull
+    private ZonedDateTime revoked_at;
+
+    public BigInteger getId() {
+        return id;
+    }
+
+    public void setId(BigInteger id) {
+        this.id = id;
+    }
+
+    public String getUser_uuid() {
+        return user_uuid;
+    }
+
+    public void setUser_uuid(String user_uuid) {
+        this.user_uuid = user_uuid;
+    }
+
+    public ZonedDateTime getRevoked_at() {
+        return revoked_at;
+    }
+
+    public void setRevoked_at(ZonedDateTime revoked_at) {
+        this.revoked_at = revoked_at;
+    }
+}
@@ -4,14 +4,14 @@ import java.io.PrintStream;
 import java.io.PrintWriter;
 
 /**
- * Exception class which represents the situation when the questions
- * pertaining to the user are there in database.
+ * Exception class which represents the situation when the search text
+ * sent by the client has no words to search for.
  */
-public class QuestionNotFoundException extends Exception {
+public class InvalidSearchException extends Exception {
     private final String code;
     private final String errorMessage;
 
-    public QuestionNotFoundException(final String code, final String errorMessage) {
+    public InvalidSearchException(final String code, final String errorMessage) {
         this.code = code;
         this.errorMessage = errorMessage;
     }
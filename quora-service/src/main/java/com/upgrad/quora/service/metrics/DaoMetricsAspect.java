@@ -0,0 +1,48 @@
+package com.upgrad.quora.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the DAOs as the "quora.dao" timer, tagged with the DAO, the method and the exception
+ * thrown by the method, so that the time spent in the database can be told apart from the time of the whole request.
+ */
+@Aspect
+@Component
+public class DaoMetricsAspect {
+
+    public static final String DAO_TIMER = "quora.dao";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * method used for timing a call of a DAO method.
+     *
+     * @param joinPoint call of the DAO method
+     * @return result of the DAO method
+     * @throws Throwable exception thrown by the DAO method
+     */
+    @Around("execution(public * com.upgrad.quora.service.dao.*.*(..))")
+    public Object time(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "None";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(DAO_TIMER)
+                    .tag("dao", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.upgrad.quora.service.projection;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Read only projection of an answer with the uuid and the user name of its author, as shown with its question.
+ * Unlike the Answer entity it is immutable, so that it can be shared by the requests served from the question detail cache.
+ */
+public class AnswerDetail {
+
+    private final String uuid;
+
+    private final String content;
+
+    private final ZonedDateTime date;
+
+    private final String authorUuid;
+
+    private final String authorUserName;
+
+    public AnswerDetail(final String uuid, final String content, final ZonedDateTime date, final String authorUuid, final String authorUserName) {
+        this.uuid = uuid;
+        this.content = content;
+        this.date = date;
+        this.authorUuid = authorUuid;
+        this.authorUserName = authorUserName;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public ZonedDateTime getDate() {
+        return date;
+    }
+
+    public String getAuthorUuid() {
+        return authorUuid;
+    }
+
+    public String getAuthorUserName() {
+        return authorUserName;
+    }
+}
@@ -0,0 +1,38 @@
+package com.upgrad.quora.service.projection;
+
+/**
+ * Read only projection of the ANSWER table with the columns indexed by the in memory search index.
+ */
+public class AnswerIndexRow {
+
+    private final Integer id;
+
+    private final Integer questionId;
+
+    private final Integer userId;
+
+    private final String answer;
+
+    public AnswerIndexRow(final Integer id, final Integer questionId, final Integer userId, final String answer) {
+        this.id = id;
+        this.questionId = questionId;
+        this.userId = userId;
+        this.answer = answer;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Integer getQuestionId() {
+        return questionId;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getAnswer() {
+        return answer;
+    }
+}
@@ -0,0 +1,32 @@
+package com.upgrad.quora.service.projection;
+
+/**
+ * Read only projection of the ANSWER table with the columns of the answer listings.
+ * Unlike the Answer entity it is not managed by the persistence context, so any number of them can be read in one transaction.
+ */
+public class AnswerSummary {
+
+    private final String uuid;
+
+    private final String answer;
+
+    private final String questionContent;
+
+    public AnswerSummary(final String uuid, final String answer, final String questionContent) {
+        this.uuid = uuid;
+        this.answer = answer;
+        this.questionContent = questionContent;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getAnswer() {
+        return answer;
+    }
+
+    public String getQuestionContent() {
+        return questionContent;
+    }
+}
@@ -0,0 +1,76 @@
+package com.upgrad.quora.service.projection;
+
+import com.upgrad.quora.service.common.Page;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Read only projection of a question with the uuid and the user name of its author and one page of its answers, oldest first.
+ * Unlike the Question entity it is immutable, so that it can be shared by the requests served from the question detail cache.
+ */
+public class QuestionDetail {
+
+    private final String uuid;
+
+    private final String content;
+
+    private final ZonedDateTime date;
+
+    private final String authorUuid;
+
+    private final String authorUserName;
+
+    private final int answerCount;
+
+    private final Page<AnswerDetail> answers;
+
+    private final QuestionVersion version;
+
+    public QuestionDetail(final String uuid, final String content, final ZonedDateTime date, final String authorUuid,
+                          final String authorUserName, final int answerCount, final Page<AnswerDetail> answers,
+                          final QuestionVersion version) {
+        this.uuid = uuid;
+        this.content = content;
+        this.date = date;
+        this.authorUuid = authorUuid;
+        this.authorUserName = authorUserName;
+        this.answerCount = answerCount;
+        this.answers = answers;
+        this.version = version;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public ZonedDateTime getDate() {
+        return date;
+    }
+
+    public String getAuthorUuid() {
+        return authorUuid;
+    }
+
+    public String getAuthorUserName() {
+        return authorUserName;
+    }
+
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    public Page<AnswerDetail> getAnswers() {
+        return answers;
+    }
+
+    /**
+     * Versions of the question and of its answers which were read along with this detail.
+     */
+    public QuestionVersion getVersion() {
+        return version;
+    }
+}
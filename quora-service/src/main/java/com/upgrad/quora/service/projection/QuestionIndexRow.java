@@ -0,0 +1,38 @@
+package com.upgrad.quora.service.projection;
+
+/**
+ * Read only projection of the QUESTION table with the columns indexed by the in memory search index.
+ */
+public class QuestionIndexRow {
+
+    private final Integer id;
+
+    private final String uuid;
+
+    private final String content;
+
+    private final Integer userId;
+
+    public QuestionIndexRow(final Integer id, final String uuid, final String content, final Integer userId) {
+        this.id = id;
+        this.uuid = uuid;
+        this.content = content;
+        this.userId = userId;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+}
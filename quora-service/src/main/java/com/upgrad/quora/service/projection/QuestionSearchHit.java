@@ -0,0 +1,38 @@
+package com.upgrad.quora.service.projection;
+
+/**
+ * Read only projection of a question found by a full text search, with the rank of the question in the search results.
+ */
+public class QuestionSearchHit {
+
+    private final Integer id;
+
+    private final String uuid;
+
+    private final String content;
+
+    private final Double rank;
+
+    public QuestionSearchHit(final Integer id, final String uuid, final String content, final Double rank) {
+        this.id = id;
+        this.uuid = uuid;
+        this.content = content;
+        this.rank = rank;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public Double getRank() {
+        return rank;
+    }
+}
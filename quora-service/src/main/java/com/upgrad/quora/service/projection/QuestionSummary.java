@@ -0,0 +1,25 @@
+package com.upgrad.quora.service.projection;
+
+/**
+ * Read only projection of the QUESTION table with the columns of the question listings.
+ * Unlike the Question entity it is not managed by the persistence context, so any number of them can be read in one transaction.
+ */
+public class QuestionSummary {
+
+    private final String uuid;
+
+    private final String content;
+
+    public QuestionSummary(final String uuid, final String content) {
+        this.uuid = uuid;
+        this.content = content;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+}
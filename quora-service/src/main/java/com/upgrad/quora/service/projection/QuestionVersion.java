@@ -0,0 +1,26 @@
+package com.upgrad.quora.service.projection;
+
+/**
+ * Read only projection of the version of a question and of the version of its answers.
+ * Both are read from the question row, so that a client can be told that a question and its answers are unchanged
+ * without reading them.
+ */
+public class QuestionVersion {
+
+    private final int version;
+
+    private final int answersVersion;
+
+    public QuestionVersion(final Integer version, final Integer answersVersion) {
+        this.version = version;
+        this.answersVersion = answersVersion;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getAnswersVersion() {
+        return answersVersion;
+    }
+}
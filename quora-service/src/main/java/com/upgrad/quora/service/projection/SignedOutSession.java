@@ -0,0 +1,34 @@
+package com.upgrad.quora.service.projection;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Read only projection of a signed out session: the digest of its access token and its expiry,
+ * all that the revocation registry needs to reject the token until it expires, and the time the sign out was written.
+ */
+public class SignedOutSession {
+
+    private final byte[] accessTokenDigest;
+
+    private final ZonedDateTime expiresAt;
+
+    private final ZonedDateTime revokedAt;
+
+    public SignedOutSession(final byte[] accessTokenDigest, final ZonedDateTime expiresAt, final ZonedDateTime revokedAt) {
+        this.accessTokenDigest = accessTokenDigest;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+
+    public byte[] getAccessTokenDigest() {
+        return accessTokenDigest;
+    }
+
+    public ZonedDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public ZonedDateTime getRevokedAt() {
+        return revokedAt;
+    }
+}
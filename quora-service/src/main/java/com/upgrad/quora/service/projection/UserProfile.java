@@ -0,0 +1,75 @@
+package com.upgrad.quora.service.projection;
+
+/**
+ * Read only projection of the profile of a user: the columns of the user details response, and the uuid it is looked up by.
+ * The password, the salt and the role are not part of it, so that a profile read never loads them.
+ */
+public class UserProfile {
+
+    private final String uuid;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    private final String userName;
+
+    private final String email;
+
+    private final String contactNumber;
+
+    private final String dob;
+
+    private final String country;
+
+    private final String aboutMe;
+
+    public UserProfile(final String uuid, final String firstName, final String lastName, final String userName, final String email,
+                       final String contactNumber, final String dob, final String country, final String aboutMe) {
+        this.uuid = uuid;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.userName = userName;
+        this.email = email;
+        this.contactNumber = contactNumber;
+        this.dob = dob;
+        this.country = country;
+        this.aboutMe = aboutMe;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getContactNumber() {
+        return contactNumber;
+    }
+
+    public String getDob() {
+        return dob;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public String getAboutMe() {
+        return aboutMe;
+    }
+}
@@ -0,0 +1,79 @@
+package com.upgrad.quora.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Postings list of a term, i.e. the ids of the questions containing the term, kept as a sorted array of primitive ints.
+ * It is not thread safe, the QuestionSearchIndex guards it with its lock.
+ */
+class IntPostings {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] ids;
+
+    private int size;
+
+    IntPostings() {
+        this.ids = new int[INITIAL_CAPACITY];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * method used for getting the id at a position, the ids are in ascending order.
+     */
+    int get(final int position) {
+        return ids[position];
+    }
+
+    boolean contains(final int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * method used for adding an id, keeping the ids sorted.
+     */
+    void add(final int id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+    }
+
+    /**
+     * method used for appending an id without keeping the ids sorted, while the index is built; sort() has to be called afterwards.
+     */
+    void append(final int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        ids[size++] = id;
+    }
+
+    /**
+     * method used for sorting the appended ids and trimming the array to them.
+     */
+    void sort() {
+        Arrays.sort(ids, 0, size);
+        ids = Arrays.copyOf(ids, size);
+    }
+
+    void remove(final int id) {
+        final int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+}
@@ -0,0 +1,562 @@
+package com.upgrad.quora.service.search;
+
+import com.upgrad.quora.service.common.SearchCursor;
+import com.upgrad.quora.service.common.TransactionCallbacks;
+import com.upgrad.quora.service.entity.Answer;
+import com.upgrad.quora.service.entity.Question;
+import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.projection.QuestionSearchHit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In memory inverted index of the words of the questions and of their answers, which serves the question search and
+ * the typeahead without querying the database.
+ * Every word maps to the sorted ids of the questions containing it in their content or in one of their answers.
+ * The index is loaded at startup by the QuestionSearchIndexLoader; the questions and answers written meanwhile are
+ * applied once it is loaded, and the searches use the database until then.
+ * The changes of the questions and answers are applied after their transaction commits, like the cache evictions.
+ */
+@Component
+public class QuestionSearchIndex {
+
+    //a question matching a word in its content ranks above a question matching it in one of its answers, as in the database search
+    private static final double CONTENT_MATCH = 1.0;
+
+    private static final double ANSWER_MATCH = 0.5;
+
+    private static final int MIN_TYPEAHEAD_PREFIX = 2;
+
+    private static final Comparator<QuestionSearchHit> BEST_FIRST = Comparator
+            .comparing(QuestionSearchHit::getRank).thenComparing(QuestionSearchHit::getId).reversed();
+
+    private enum State {LOADING, READY, DISABLED}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private TreeMap<String, IntPostings> postings = new TreeMap<>();
+
+    private Map<Integer, IndexedQuestion> questions = new HashMap<>();
+
+    private Map<Integer, IndexedAnswer> answers = new HashMap<>();
+
+    //changes committed while the index is loaded
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+
+    private volatile State state;
+
+    public QuestionSearchIndex(@Value("${quora.search.index.enabled:true}") final boolean enabled) {
+        this.state = enabled ? State.LOADING : State.DISABLED;
+    }
+
+    /**
+     * method used for checking if the searches can be served by the index.
+     *
+     * @return true once the index is loaded
+     */
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    /**
+     * method used for indexing a created or edited question once the transaction commits.
+     *
+     * @param question created or edited question
+     */
+    public void indexQuestion(final Question question) {
+        final IndexedQuestion indexedQuestion = new IndexedQuestion(question.getId(), question.getUuid(), question.getContent(), question.getUser().getUser_id());
+        afterCommit(() -> apply(() -> putQuestion(indexedQuestion)));
+    }
+
+    /**
+     * method used for indexing a created or edited answer once the transaction commits.
+     *
+     * @param answer created or edited answer
+     */
+    public void indexAnswer(final Answer answer) {
+        final IndexedAnswer indexedAnswer = new IndexedAnswer(answer.getId(), answer.getQuestion().getId(), answer.getUser().getUser_id(), answer.getAnswer());
+        afterCommit(() -> apply(() -> putAnswer(indexedAnswer)));
+    }
+
+    /**
+     * method used for removing a deleted question and its answers once the transaction commits.
+     *
+     * @param question deleted question
+     */
+    public void removeQuestion(final Question question) {
+        final int questionId = question.getId();
+        afterCommit(() -> apply(() -> deleteQuestion(questionId)));
+    }
+
+    /**
+     * method used for removing a deleted answer once the transaction commits.
+     *
+     * @param answer deleted answer
+     */
+    public void removeAnswer(final Answer answer) {
+        final int answerId = answer.getId();
+        afterCommit(() -> apply(() -> deleteAnswer(answerId)));
+    }
+
+    /**
+     * method used for removing the questions and answers of a deleted user once the transaction commits.
+     *
+     * @param user deleted user
+     */
+    public void removeUser(final UserEntity user) {
+        final int userId = user.getUser_id();
+        afterCommit(() -> apply(() -> deleteUser(userId)));
+    }
+
+    /**
+     * method used for getting one page of the questions containing all the words of a search text, best match first.
+     * A question scores 1 for every word of its content and 0.5 for every word found in its answers only,
+     * the questions are ordered by (score, id) like the database search orders them by (rank, id).
+     *
+     * @param text   search text
+     * @param cursor position of the last question of the previous page, null for the first page
+     * @param limit  maximum number of questions to be returned
+     * @return list of matching questions with their score
+     */
+    public List<QuestionSearchHit> search(final String text, final SearchCursor cursor, final int limit) {
+        final String[] terms = terms(text);
+        lock.readLock().lock();
+        try {
+            final IntPostings[] termPostings = getPostingsSmallestFirst(terms);
+            if (termPostings == null) {
+                return Collections.emptyList();
+            }
+            final PriorityQueue<QuestionSearchHit> best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+            final IntPostings candidates = termPostings[0];
+            for (int i = 0; i < candidates.size(); i++) {
+                final int id = candidates.get(i);
+                if (!containsAll(termPostings, id)) {
+                    continue;
+                }
+                final IndexedQuestion question = questions.get(id);
+                double score = 0;
+                for (String term : terms) {
+                    score += question.hasContentTerm(term) ? CONTENT_MATCH : ANSWER_MATCH;
+                }
+                if (cursor != null && !cursor.precedes(score, id)) {
+                    continue;
+                }
+                best.add(new QuestionSearchHit(id, question.uuid, question.content, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            final List<QuestionSearchHit> hits = new ArrayList<>(best);
+            hits.sort(BEST_FIRST);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * method used for suggesting the questions whose content contains the words typed so far, newest first.
+     * The last word is completed, unless the text ends with a space or a punctuation mark.
+     *
+     * @param text  text typed so far
+     * @param limit maximum number of questions to be returned
+     * @return list of suggested questions
+     */
+    public List<QuestionSearchHit> typeahead(final String text, final int limit) {
+        final List<String> words = tokens(text);
+        String prefix = null;
+        if (!words.isEmpty() && Character.isLetterOrDigit(text.charAt(text.length() - 1))) {
+            prefix = words.remove(words.size() - 1);
+        }
+        final String[] terms = new TreeSet<>(words).toArray(new String[0]);
+        if (terms.length == 0 && (prefix == null || prefix.length() < MIN_TYPEAHEAD_PREFIX)) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            final TreeSet<Integer> newestFirst = new TreeSet<>(Comparator.reverseOrder());
+            if (terms.length > 0) {
+                final IntPostings[] termPostings = getPostingsSmallestFirst(terms);
+                if (termPostings == null) {
+                    return Collections.emptyList();
+                }
+                final IntPostings candidates = termPostings[0];
+                for (int i = candidates.size() - 1; i >= 0 && newestFirst.size() < limit; i--) {
+                    final int id = candidates.get(i);
+                    if (containsAll(termPostings, id) && questions.get(id).hasContentTerms(terms, prefix)) {
+                        newestFirst.add(id);
+                    }
+                }
+            } else {
+                //the newest questions of every completion of the prefix, of which the newest ones are suggested
+                for (Map.Entry<String, IntPostings> completion : completions(prefix).entrySet()) {
+                    final IntPostings candidates = completion.getValue();
+                    int found = 0;
+                    for (int i = candidates.size() - 1; i >= 0 && found < limit; i--) {
+                        final int id = candidates.get(i);
+                        if (questions.get(id).hasContentTerm(completion.getKey())) {
+                            newestFirst.add(id);
+                            found++;
+                        }
+                    }
+                }
+            }
+            final List<QuestionSearchHit> suggestions = new ArrayList<>(Math.min(limit, newestFirst.size()));
+            for (Integer id : newestFirst) {
+                if (suggestions.size() == limit) {
+                    break;
+                }
+                final IndexedQuestion question = questions.get(id);
+                suggestions.add(new QuestionSearchHit(id, question.uuid, question.content, 0.0));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * method used by the loader for replacing the content of the index with the questions and answers read from the database.
+     * The changes committed while the questions and answers were read are applied afterwards.
+     */
+    void load(final Collection<IndexedQuestion> loadedQuestions, final Collection<IndexedAnswer> loadedAnswers) {
+        final Map<Integer, IndexedQuestion> newQuestions = new HashMap<>(loadedQuestions.size() * 4 / 3 + 1);
+        for (IndexedQuestion question : loadedQuestions) {
+            newQuestions.put(question.id, question);
+        }
+        final Map<Integer, IndexedAnswer> newAnswers = new HashMap<>(loadedAnswers.size() * 4 / 3 + 1);
+        for (IndexedAnswer answer : loadedAnswers) {
+            final IndexedQuestion question = newQuestions.get(answer.questionId);
+            if (question != null) {
+                newAnswers.put(answer.id, answer);
+                question.addAnswer(answer.id);
+            }
+        }
+        //the ids are appended in any order and every postings list is sorted once
+        final TreeMap<String, IntPostings> newPostings = new TreeMap<>();
+        for (IndexedQuestion question : newQuestions.values()) {
+            for (String term : termsOf(question, newAnswers)) {
+                newPostings.computeIfAbsent(term, t -> new IntPostings()).append(question.id);
+            }
+        }
+        for (IntPostings termPostings : newPostings.values()) {
+            termPostings.sort();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (state != State.LOADING) {
+                return;
+            }
+            postings = newPostings;
+            questions = newQuestions;
+            answers = newAnswers;
+            state = State.READY;
+            for (Runnable change : pendingChanges) {
+                change.run();
+            }
+            pendingChanges.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * method used by the loader when the index could not be loaded, the searches keep using the database.
+     */
+    void loadFailed() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges.clear();
+            state = State.DISABLED;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putQuestion(final IndexedQuestion question) {
+        final IndexedQuestion previous = questions.get(question.id);
+        final Set<String> previousTerms;
+        if (previous == null) {
+            previousTerms = Collections.emptySet();
+        } else {
+            previousTerms = termsOf(previous, answers);
+            question.answerIds = previous.answerIds;
+        }
+        questions.put(question.id, question);
+        updatePostings(question.id, previousTerms, termsOf(question, answers));
+    }
+
+    private void putAnswer(final IndexedAnswer answer) {
+        final IndexedQuestion question = questions.get(answer.questionId);
+        if (question == null) {
+            return;
+        }
+        final Set<String> previousTerms = termsOf(question, answers);
+        answers.put(answer.id, answer);
+        question.addAnswer(answer.id);
+        updatePostings(question.id, previousTerms, termsOf(question, answers));
+    }
+
+    private void deleteQuestion(final int questionId) {
+        final IndexedQuestion question = questions.get(questionId);
+        if (question == null) {
+            return;
+        }
+        updatePostings(questionId, termsOf(question, answers), Collections.emptySet());
+        for (int answerId : question.answerIds) {
+            answers.remove(answerId);
+        }
+        questions.remove(questionId);
+    }
+
+    private void deleteAnswer(final int answerId) {
+        final IndexedAnswer answer = answers.get(answerId);
+        if (answer == null) {
+            return;
+        }
+        final IndexedQuestion question = questions.get(answer.questionId);
+        if (question == null) {
+            answers.remove(answerId);
+            return;
+        }
+        final Set<String> previousTerms = termsOf(question, answers);
+        question.removeAnswer(answerId);
+        answers.remove(answerId);
+        updatePostings(question.id, previousTerms, termsOf(question, answers));
+    }
+
+    private void deleteUser(final int userId) {
+        final List<Integer> questionIds = new ArrayList<>();
+        for (IndexedQuestion question : questions.values()) {
+            if (question.userId == userId) {
+                questionIds.add(question.id);
+            }
+        }
+        for (Integer questionId : questionIds) {
+            deleteQuestion(questionId);
+        }
+        final List<Integer> answerIds = new ArrayList<>();
+        for (IndexedAnswer answer : answers.values()) {
+            if (answer.userId == userId) {
+                answerIds.add(answer.id);
+            }
+        }
+        for (Integer answerId : answerIds) {
+            deleteAnswer(answerId);
+        }
+    }
+
+    /**
+     * The changes are applied under the write lock, or kept until the index is loaded.
+     */
+    private void apply(final Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (state == State.READY) {
+                change.run();
+            } else if (state == State.LOADING) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(final Runnable change) {
+        if (state == State.DISABLED) {
+            return;
+        }
+        if (!TransactionCallbacks.afterCommit(change)) {
+            change.run();
+        }
+    }
+
+    private void updatePostings(final int questionId, final Set<String> previousTerms, final Set<String> terms) {
+        for (String term : previousTerms) {
+            if (!terms.contains(term)) {
+                final IntPostings termPostings = postings.get(term);
+                termPostings.remove(questionId);
+                if (termPostings.size() == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (String term : terms) {
+            if (!previousTerms.contains(term)) {
+                postings.computeIfAbsent(term, t -> new IntPostings()).add(questionId);
+            }
+        }
+    }
+
+    /**
+     * The postings lists of the terms, the shortest first so that the candidates are taken from it, or null if a term is not indexed.
+     */
+    private IntPostings[] getPostingsSmallestFirst(final String[] terms) {
+        if (terms.length == 0) {
+            return null;
+        }
+        final IntPostings[] termPostings = new IntPostings[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            termPostings[i] = postings.get(terms[i]);
+            if (termPostings[i] == null) {
+                return null;
+            }
+        }
+        Arrays.sort(termPostings, Comparator.comparingInt(IntPostings::size));
+        return termPostings;
+    }
+
+    private NavigableMap<String, IntPostings> completions(final String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+    }
+
+    private static boolean containsAll(final IntPostings[] termPostings, final int id) {
+        for (int i = 1; i < termPostings.length; i++) {
+            if (!termPostings[i].contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> termsOf(final IndexedQuestion question, final Map<Integer, IndexedAnswer> answers) {
+        final Set<String> terms = new HashSet<>(Arrays.asList(question.contentTerms));
+        for (int answerId : question.answerIds) {
+            terms.addAll(Arrays.asList(answers.get(answerId).terms));
+        }
+        return terms;
+    }
+
+    /**
+     * method used for splitting a text into its distinct lower case words, in sorted order.
+     */
+    static String[] terms(final String text) {
+        return new TreeSet<>(tokens(text)).toArray(new String[0]);
+    }
+
+    private static List<String> tokens(final String text) {
+        final List<String> tokens = new ArrayList<>();
+        final StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * A question of the index with the sorted words of its content and the ids of its answers.
+     */
+    static class IndexedQuestion {
+
+        private static final int[] NO_ANSWERS = new int[0];
+
+        final int id;
+
+        final String uuid;
+
+        final String content;
+
+        final int userId;
+
+        final String[] contentTerms;
+
+        int[] answerIds = NO_ANSWERS;
+
+        IndexedQuestion(final int id, final String uuid, final String content, final int userId) {
+            this.id = id;
+            this.uuid = uuid;
+            this.content = content;
+            this.userId = userId;
+            this.contentTerms = terms(content);
+        }
+
+        boolean hasContentTerm(final String term) {
+            return Arrays.binarySearch(contentTerms, term) >= 0;
+        }
+
+        /**
+         * method used for checking that the content contains all the terms, and a word starting with the prefix unless it is null.
+         */
+        boolean hasContentTerms(final String[] terms, final String prefix) {
+            for (String term : terms) {
+                if (!hasContentTerm(term)) {
+                    return false;
+                }
+            }
+            if (prefix == null) {
+                return true;
+            }
+            final int position = Arrays.binarySearch(contentTerms, prefix);
+            final int ceiling = position >= 0 ? position : -position - 1;
+            return ceiling < contentTerms.length && contentTerms[ceiling].startsWith(prefix);
+        }
+
+        void addAnswer(final int answerId) {
+            for (int id : answerIds) {
+                if (id == answerId) {
+                    return;
+                }
+            }
+            answerIds = Arrays.copyOf(answerIds, answerIds.length + 1);
+            answerIds[answerIds.length - 1] = answerId;
+        }
+
+        void removeAnswer(final int answerId) {
+            final int[] remaining = new int[answerIds.length];
+            int size = 0;
+            for (int id : answerIds) {
+                if (id != answerId) {
+                    remaining[size++] = id;
+                }
+            }
+            answerIds = Arrays.copyOf(remaining, size);
+        }
+    }
+
+    /**
+     * An answer of the index with the sorted words of its content.
+     */
+    static class IndexedAnswer {
+
+        final int id;
+
+        final int questionId;
+
+        final int userId;
+
+        final String[] terms;
+
+        IndexedAnswer(final int id, final int questionId, final int userId, final String answer) {
+            this.id = id;
+            this.questionId = questionId;
+            this.userId = userId;
+            this.terms = terms(answer);
+        }
+    }
+}
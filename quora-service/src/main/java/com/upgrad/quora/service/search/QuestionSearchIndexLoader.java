@@ -0,0 +1,128 @@
+package com.upgrad.quora.service.search;
+
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.projection.AnswerIndexRow;
+import com.upgrad.quora.service.projection.QuestionIndexRow;
+import com.upgrad.quora.service.search.QuestionSearchIndex.IndexedAnswer;
+import com.upgrad.quora.service.search.QuestionSearchIndex.IndexedQuestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the question search index once the application is started, without delaying the startup.
+ * The questions and answers are read by id ranges on several threads, which also split them into words,
+ * so that the load takes a fraction of the time of reading every row on one connection.
+ */
+@Component
+public class QuestionSearchIndexLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QuestionSearchIndexLoader.class);
+
+    @Autowired
+    QuestionSearchIndex questionSearchIndex;
+
+    @Autowired
+    QuestionDao questionDao;
+
+    @Autowired
+    AnswerDao answerDao;
+
+    @Value("${quora.search.index.loader-threads:0}")
+    private int loaderThreads;
+
+    @Value("${quora.search.index.load-batch-size:10000}")
+    private int loadBatchSize;
+
+    /**
+     * method used for starting the load of the index in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if (questionSearchIndex.isReady()) {
+            return;
+        }
+        final Thread loader = new Thread(this::load, "question-search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * method used for reading all the questions and answers and loading them into the index.
+     * The searches keep using the database if the load fails.
+     */
+    void load() {
+        final long start = System.nanoTime();
+        final int threads = loaderThreads > 0 ? loaderThreads : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "question-search-index-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<List<IndexedQuestion>>> questionBatches = new ArrayList<>();
+            final int maxQuestionId = questionDao.getMaxQuestionId();
+            for (int fromId = 1; fromId <= maxQuestionId; fromId += loadBatchSize) {
+                final int from = fromId;
+                questionBatches.add(executor.submit(() -> readQuestions(from, from + loadBatchSize - 1)));
+            }
+            final List<Future<List<IndexedAnswer>>> answerBatches = new ArrayList<>();
+            final int maxAnswerId = answerDao.getMaxAnswerId();
+            for (int fromId = 1; fromId <= maxAnswerId; fromId += loadBatchSize) {
+                final int from = fromId;
+                answerBatches.add(executor.submit(() -> readAnswers(from, from + loadBatchSize - 1)));
+            }
+
+            final List<IndexedQuestion> questions = new ArrayList<>();
+            for (Future<List<IndexedQuestion>> batch : questionBatches) {
+                questions.addAll(batch.get());
+            }
+            final List<IndexedAnswer> answers = new ArrayList<>();
+            for (Future<List<IndexedAnswer>> batch : answerBatches) {
+                answers.addAll(batch.get());
+            }
+            questionSearchIndex.load(questions, answers);
+            LOG.info("Loaded {} questions and {} answers into the question search index in {} ms",
+                    questions.size(), answers.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            questionSearchIndex.loadFailed();
+        } catch (Exception e) {
+            LOG.error("Loading of the question search index failed, the searches use the database", e);
+            questionSearchIndex.loadFailed();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<IndexedQuestion> readQuestions(final int fromId, final int toId) {
+        final List<QuestionIndexRow> rows = questionDao.getQuestionIndexRows(fromId, toId);
+        final List<IndexedQuestion> questions = new ArrayList<>(rows.size());
+        for (QuestionIndexRow row : rows) {
+            questions.add(new IndexedQuestion(row.getId(), row.getUuid(), row.getContent(), row.getUserId()));
+        }
+        return questions;
+    }
+
+    private List<IndexedAnswer> readAnswers(final int fromId, final int toId) {
+        final List<AnswerIndexRow> rows = answerDao.getAnswerIndexRows(fromId, toId);
+        final List<IndexedAnswer> answers = new ArrayList<>(rows.size());
+        for (AnswerIndexRow row : rows) {
+            answers.add(new IndexedAnswer(row.getId(), row.getQuestionId(), row.getUserId(), row.getAnswer()));
+        }
+        return answers;
+    }
+}
@@ -0,0 +1,148 @@
+package com.upgrad.quora.service.session;
+
+import com.upgrad.quora.service.business.JwtTokenProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Removes the sessions which expired more than the retention period ago from USER_AUTH, so that the table,
+ * and the access token index searched by every authorized request, do not grow with every sign in forever.
+ * Sessions are removed once expired only, signed out sessions included, so that the sign outs of the tokens
+ * which are still valid stay visible to the RevokedTokenRegistry of every server.
+ * <p>
+ * The sessions are deleted, or moved to USER_AUTH_ARCHIVE, in bounded batches, one transaction per batch.
+ * When USER_AUTH is partitioned by month of expiry (sql/partitioning/user_auth_partitioning.sql), the partitions
+ * of the months past the retention period are dropped, or detached, as a whole, and the partitions of the
+ * coming months are created ahead of time.
+ * The user revocations of USER_REVOCATION are deleted once every token issued before them has expired.
+ */
+@Component
+public class SessionReaper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SessionReaper.class);
+
+    private static final String PARTITION_PREFIX = "user_auth_p";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARTITION_PREFIX + "(\\d{6})");
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private SessionWriter sessionWriter;
+
+    private final boolean enabled;
+
+    private final Duration retention;
+
+    private final int batchSize;
+
+    private final int maxBatchesPerRun;
+
+    private final Duration maxRunTime;
+
+    private final boolean archive;
+
+    private final boolean partitioned;
+
+    private final int partitionsAhead;
+
+    public SessionReaper(@Value("${quora.auth.session-reaper.enabled:false}") final boolean enabled,
+                         @Value("${quora.auth.session-reaper.retention-hours:168}") final long retentionHours,
+                         @Value("${quora.auth.session-reaper.batch-size:5000}") final int batchSize,
+                         @Value("${quora.auth.session-reaper.max-batches-per-run:100}") final int maxBatchesPerRun,
+                         @Value("${quora.auth.session-reaper.max-run-ms:60000}") final long maxRunMillis,
+                         @Value("${quora.auth.session-reaper.archive:false}") final boolean archive,
+                         @Value("${quora.auth.session-reaper.partitions.enabled:false}") final boolean partitioned,
+                         @Value("${quora.auth.session-reaper.partitions.months-ahead:2}") final int partitionsAhead) {
+        this.enabled = enabled;
+        this.retention = Duration.ofHours(retentionHours);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxRunTime = Duration.ofMillis(maxRunMillis);
+        this.archive = archive;
+        this.partitioned = partitioned;
+        this.partitionsAhead = partitionsAhead;
+    }
+
+    /**
+     * method used for removing the expired sessions, run every few minutes.
+     * A run stops after max-batches-per-run batches or once it has run for max-run-ms, the next run carries on,
+     * so that a large backlog is worked off without holding a connection or locking rows for long.
+     */
+    @Scheduled(initialDelayString = "${quora.auth.session-reaper.interval-ms:300000}", fixedDelayString = "${quora.auth.session-reaper.interval-ms:300000}")
+    public void reap() {
+        if (!enabled) {
+            return;
+        }
+        final ZonedDateTime expiredBefore = ZonedDateTime.now().minus(retention);
+        final long deadline = System.nanoTime() + maxRunTime.toNanos();
+        try {
+            if (partitioned) {
+                createPartitions(LocalDate.now());
+                removePartitions(expiredBefore.toLocalDate());
+            }
+            //the sessions which are not in a partition of their own, e.g. in the default partition, are removed row by row
+            int removed = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                final int batchRemoved = sessionWriter.removeExpiredSessions(expiredBefore, batchSize, archive);
+                removed += batchRemoved;
+                if (batchRemoved < batchSize || System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+            }
+            if (removed > 0) {
+                LOG.info("Removed {} sessions which expired before {} from USER_AUTH", removed, expiredBefore);
+            }
+            //a revocation applies to tokens issued before it, which have all expired one token validity later
+            final ZonedDateTime revokedBefore = ZonedDateTime.now().minus(JwtTokenProvider.TOKEN_VALIDITY);
+            final int revocationsRemoved = sessionWriter.removeUserRevocations(revokedBefore);
+            if (revocationsRemoved > 0) {
+                LOG.info("Removed {} user revocations made before {} from USER_REVOCATION", revocationsRemoved, revokedBefore);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Removing the expired sessions from USER_AUTH failed, it is retried by the next run", e);
+        }
+    }
+
+    private void createPartitions(final LocalDate today) {
+        YearMonth month = YearMonth.from(today);
+        //the partitions of the coming months are created ahead, a session which falls into no partition goes to the default partition
+        for (int ahead = 0; ahead <= partitionsAhead; ahead++) {
+            final String partition = PARTITION_PREFIX + PARTITION_MONTH.format(month);
+            try {
+                sessionWriter.createSessionPartition(partition, month.atDay(1), month.plusMonths(1).atDay(1));
+            } catch (RuntimeException e) {
+                //fails while the default partition holds sessions of the month, which are then removed row by row
+                LOG.warn("Creating partition {} of USER_AUTH failed", partition, e);
+            }
+            month = month.plusMonths(1);
+        }
+    }
+
+    private void removePartitions(final LocalDate expiredBefore) {
+        for (String partition : sessionWriter.getSessionPartitions()) {
+            final Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            //a partition is removed once every session in it expired before the retention period
+            final LocalDate partitionEnd = YearMonth.parse(matcher.group(1), PARTITION_MONTH).plusMonths(1).atDay(1);
+            if (!partitionEnd.isAfter(expiredBefore)) {
+                sessionWriter.removeSessionPartition(partition, archive);
+                LOG.info("{} partition {} of USER_AUTH", archive ? "Detached" : "Dropped", partition);
+            }
+        }
+    }
+}
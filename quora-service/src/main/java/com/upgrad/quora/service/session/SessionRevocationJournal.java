@@ -0,0 +1,173 @@
+package com.upgrad.quora.service.session;
+
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.TokenDigest;
+import com.upgrad.quora.service.common.UnexpectedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local append-only file of the sign outs which have not been written to USER_AUTH yet.
+ * Every sign out is appended, and synced to the disk, before the sign out request is answered,
+ * so that a sign out is not lost when the server stops before the write-behind queue is flushed.
+ * The journal is replayed at startup and emptied once every journaled sign out has been written.
+ * Like USER_AUTH, the journal holds the digests of the access tokens only.
+ */
+@Component
+public class SessionRevocationJournal {
+
+    private static final String SEPARATOR = "\t";
+
+    private final Path path;
+
+    private final boolean sync;
+
+    private FileChannel channel;
+
+    public SessionRevocationJournal(@Value("${quora.auth.session-writes.journal-path}") final String path,
+                                    @Value("${quora.auth.session-writes.journal-sync:true}") final boolean sync) {
+        //a relative path would depend on the directory the server is started from, and a restart from another
+        //directory would not replay the sign outs left in the journal
+        if (path == null || path.trim().isEmpty() || !Paths.get(path).isAbsolute()) {
+            throw new IllegalStateException("The session journal path configured under quora.auth.session-writes.journal-path must be absolute,"
+                    + " set QUORA_SESSION_JOURNAL");
+        }
+        this.path = Paths.get(path);
+        this.sync = sync;
+    }
+
+    /**
+     * method used for reading the sign outs left in the journal by the previous run of the server.
+     *
+     * @return every journaled sign out, the latest entry of a token wins
+     */
+    public synchronized Map<TokenDigest, JournaledSignOut> replay() {
+        final Map<TokenDigest, JournaledSignOut> signOuts = new LinkedHashMap<>();
+        if (!Files.exists(path)) {
+            return signOuts;
+        }
+        try {
+            final List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                final String[] fields = line.split(SEPARATOR);
+                //a line cut short by a crash has too few fields or an incomplete digest, and is skipped
+                if (fields.length != 3) {
+                    continue;
+                }
+                try {
+                    final byte[] digest = Base64.getDecoder().decode(fields[2]);
+                    if (digest.length != TokenDigest.LENGTH) {
+                        continue;
+                    }
+                    signOuts.put(TokenDigest.wrap(digest), new JournaledSignOut(toDateTime(fields[0]), toDateTime(fields[1])));
+                } catch (IllegalArgumentException e) {
+                    //skipped like a line cut short, NumberFormatException included
+                }
+            }
+        } catch (IOException e) {
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        }
+        return signOuts;
+    }
+
+    /**
+     * method used for recording a sign out before it is queued.
+     *
+     * @param accessTokenDigest digest of the signed out access token
+     * @param logoutAt          logout time of the session
+     * @param expiresAt         expiry of the session
+     */
+    public synchronized void append(final TokenDigest accessTokenDigest, final ZonedDateTime logoutAt, final ZonedDateTime expiresAt) {
+        final String line = logoutAt.toInstant().toEpochMilli() + SEPARATOR + expiresAt.toInstant().toEpochMilli()
+                + SEPARATOR + Base64.getEncoder().encodeToString(accessTokenDigest.getBytes()) + "\n";
+        try {
+            final FileChannel journal = getChannel();
+            final ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            if (sync) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        }
+    }
+
+    /**
+     * method used for emptying the journal once every journaled sign out has been written to USER_AUTH.
+     */
+    public synchronized void truncate() {
+        try {
+            final FileChannel journal = getChannel();
+            journal.truncate(0);
+            if (sync) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static ZonedDateTime toDateTime(final String epochMillis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(epochMillis)), ZoneId.systemDefault());
+    }
+
+    private FileChannel getChannel() throws IOException {
+        if (channel == null) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /**
+     * Sign out read back from the journal.
+     */
+    public static class JournaledSignOut {
+
+        private final ZonedDateTime logoutAt;
+
+        private final ZonedDateTime expiresAt;
+
+        JournaledSignOut(final ZonedDateTime logoutAt, final ZonedDateTime expiresAt) {
+            this.logoutAt = logoutAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public ZonedDateTime getLogoutAt() {
+            return logoutAt;
+        }
+
+        public ZonedDateTime getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.upgrad.quora.service.session;
+
+import com.upgrad.quora.service.business.RevokedTokenRegistry;
+import com.upgrad.quora.service.common.TokenDigest;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.UserAuthEntity;
+import com.upgrad.quora.service.session.SessionRevocationJournal.JournaledSignOut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory write-behind queue of the sign ins and sign outs, so that the sign in and sign out requests
+ * do not wait for a write to USER_AUTH.
+ * The queue is flushed every few milliseconds, every flush writes a batch of sessions in one transaction,
+ * and a session signed out before it was flushed is inserted once with its logout time.
+ * Until they are flushed, the queued sessions are served from the queue and the queued sign outs are
+ * applied to the sessions read from the database, so that the sessions behave as if they were written right away.
+ * <p>
+ * Sign outs are appended to the SessionRevocationJournal before they are queued, and are replayed from it
+ * at startup, so that a revocation is never lost. A queued sign in which is lost by a crash only means
+ * that the user has to sign in again.
+ * Other servers see a sign in or sign out once it has been flushed.
+ */
+@Component
+public class SessionWriteBehindQueue {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SessionWriteBehindQueue.class);
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private SessionWriter sessionWriter;
+
+    @Autowired
+    private SessionRevocationJournal sessionRevocationJournal;
+
+    @Autowired
+    private RevokedTokenRegistry revokedTokenRegistry;
+
+    private final int batchSize;
+
+    private final int maxPending;
+
+    private final Map<String, UserAuthEntity> pendingSignIns = new ConcurrentHashMap<>();
+
+    //sign ins taken from the queue by a flush which has not committed yet
+    private final Map<String, UserAuthEntity> flushingSignIns = new ConcurrentHashMap<>();
+
+    //sign outs stay here until they are committed, so that the sessions read in the meantime are signed out
+    private final Map<TokenDigest, ZonedDateTime> pendingSignOuts = new ConcurrentHashMap<>();
+
+    public SessionWriteBehindQueue(@Value("${quora.auth.session-writes.batch-size:500}") final int batchSize,
+                                   @Value("${quora.auth.session-writes.max-pending:10000}") final int maxPending) {
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * method used for queueing the sign outs journaled but not written by the previous run of the server.
+     */
+    @PostConstruct
+    public void replayJournal() {
+        final Map<TokenDigest, JournaledSignOut> journaledSignOuts = sessionRevocationJournal.replay();
+        for (Map.Entry<TokenDigest, JournaledSignOut> signOut : journaledSignOuts.entrySet()) {
+            pendingSignOuts.putIfAbsent(signOut.getKey(), signOut.getValue().getLogoutAt());
+            revokedTokenRegistry.revoke(signOut.getKey(), signOut.getValue().getExpiresAt().toInstant());
+        }
+        if (!journaledSignOuts.isEmpty()) {
+            LOG.info("Replayed {} sign outs from the session revocation journal", journaledSignOuts.size());
+        }
+    }
+
+    /**
+     * method used for queueing a new session.
+     *
+     * @param userAuthEntity new session
+     */
+    public void signIn(final UserAuthEntity userAuthEntity) {
+        pendingSignIns.put(userAuthEntity.getAccess_token(), userAuthEntity);
+        flushIfFull();
+    }
+
+    /**
+     * method used for queueing the sign out of a session.
+     * The sign out is journaled before this method returns.
+     *
+     * @param userAuthEntity session
+     * @param logoutAt       logout time of the session
+     */
+    public void signOut(final UserAuthEntity userAuthEntity, final ZonedDateTime logoutAt) {
+        final TokenDigest accessTokenDigest = TokenDigest.wrap(userAuthEntity.getAccess_token_digest());
+        synchronized (sessionRevocationJournal) {
+            sessionRevocationJournal.append(accessTokenDigest, logoutAt, userAuthEntity.getExpires_at());
+            pendingSignOuts.putIfAbsent(accessTokenDigest, logoutAt);
+        }
+        flushIfFull();
+    }
+
+    /**
+     * method used for getting a session, from the queue if it has not been written yet, from the database otherwise.
+     *
+     * @param accessToken access token of the session
+     * @return session or null if there is no session with this access token
+     */
+    public UserAuthEntity getSession(final String accessToken) {
+        UserAuthEntity queuedSession = pendingSignIns.get(accessToken);
+        if (queuedSession == null) {
+            queuedSession = flushingSignIns.get(accessToken);
+        }
+        return queuedSession != null ? queuedSession : userDao.getUserAuthToken(accessToken);
+    }
+
+    /**
+     * method used for checking whether a session has been signed out, queued sign outs included.
+     *
+     * @param userAuthEntity session
+     * @return true if the session has been signed out
+     */
+    public boolean isSignedOut(final UserAuthEntity userAuthEntity) {
+        return userAuthEntity.getLogout_at() != null || pendingSignOuts.containsKey(TokenDigest.wrap(userAuthEntity.getAccess_token_digest()));
+    }
+
+    /**
+     * method used for dropping the queued sessions of a deleted user, their rows could not be inserted any more.
+     * The sessions taken by a flush which has not committed yet are dropped as well, so that they are not queued again.
+     *
+     * @param userUuid uuid of the user
+     */
+    public void discardUser(final String userUuid) {
+        pendingSignIns.values().removeIf(session -> userUuid.equals(session.getUser_id().getUuid()));
+        flushingSignIns.values().removeIf(session -> userUuid.equals(session.getUser_id().getUuid()));
+    }
+
+    public int size() {
+        return pendingSignIns.size() + pendingSignOuts.size();
+    }
+
+    /**
+     * method used for writing the queued sign ins and sign outs, one batch per transaction.
+     * A batch which fails is queued again and retried by the next flush, the journaled sign outs
+     * stay in the journal until they have been written.
+     * A batch holding a session which can never be inserted, e.g. the session of a user deleted meanwhile,
+     * is written again one session at a time, and the sessions which still fail are dropped.
+     */
+    @Scheduled(fixedDelayString = "${quora.auth.session-writes.flush-interval-ms:200}")
+    public synchronized void flush() {
+        while (!pendingSignIns.isEmpty() || !pendingSignOuts.isEmpty()) {
+            final List<UserAuthEntity> signIns = new ArrayList<>();
+            final Iterator<Map.Entry<String, UserAuthEntity>> pendingSignIn = pendingSignIns.entrySet().iterator();
+            while (signIns.size() < batchSize && pendingSignIn.hasNext()) {
+                final Map.Entry<String, UserAuthEntity> entry = pendingSignIn.next();
+                flushingSignIns.put(entry.getKey(), entry.getValue());
+                signIns.add(entry.getValue());
+                pendingSignIn.remove();
+            }
+            final Map<TokenDigest, ZonedDateTime> signOuts = new LinkedHashMap<>();
+            for (Map.Entry<TokenDigest, ZonedDateTime> entry : pendingSignOuts.entrySet()) {
+                if (signOuts.size() >= batchSize) {
+                    break;
+                }
+                signOuts.put(entry.getKey(), entry.getValue());
+            }
+
+            try {
+                sessionWriter.write(toRows(signIns, signOuts), signOuts);
+            } catch (DataIntegrityViolationException e) {
+                LOG.warn("Writing {} sign ins and {} sign outs to USER_AUTH failed, writing the sign ins one at a time", signIns.size(), signOuts.size(), e);
+                if (!writeOneByOne(signIns, signOuts)) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Writing {} sign ins and {} sign outs to USER_AUTH failed, they are retried by the next flush", signIns.size(), signOuts.size(), e);
+                requeue(signIns);
+                return;
+            }
+            for (UserAuthEntity signIn : signIns) {
+                flushingSignIns.remove(signIn.getAccess_token());
+            }
+            synchronized (sessionRevocationJournal) {
+                for (Map.Entry<TokenDigest, ZonedDateTime> signOut : signOuts.entrySet()) {
+                    pendingSignOuts.remove(signOut.getKey(), signOut.getValue());
+                }
+                if (pendingSignOuts.isEmpty()) {
+                    sessionRevocationJournal.truncate();
+                }
+            }
+        }
+    }
+
+    /**
+     * method used for writing a failed batch one sign in per transaction, then its sign outs.
+     * A sign in which fails on a constraint is dropped, any other failure queues the rest of the batch again.
+     *
+     * @return true if the batch has been written, apart from the dropped sign ins
+     */
+    private boolean writeOneByOne(final List<UserAuthEntity> signIns, final Map<TokenDigest, ZonedDateTime> signOuts) {
+        for (int i = 0; i < signIns.size(); i++) {
+            final UserAuthEntity signIn = signIns.get(i);
+            //a session discarded meanwhile is not written
+            if (!flushingSignIns.containsKey(signIn.getAccess_token())) {
+                continue;
+            }
+            try {
+                sessionWriter.write(toRows(Collections.singletonList(signIn), signOuts), Collections.emptyMap());
+            } catch (DataIntegrityViolationException e) {
+                LOG.error("Dropped the session {} of the user {}, it can not be written to USER_AUTH", signIn.getUuid(), signIn.getUser_id().getUuid(), e);
+            } catch (RuntimeException e) {
+                LOG.warn("Writing a sign in to USER_AUTH failed, the rest of the batch is retried by the next flush", e);
+                requeue(signIns.subList(i, signIns.size()));
+                return false;
+            }
+            flushingSignIns.remove(signIn.getAccess_token());
+        }
+        try {
+            sessionWriter.write(Collections.emptyList(), signOuts);
+        } catch (RuntimeException e) {
+            LOG.warn("Writing {} sign outs to USER_AUTH failed, they are retried by the next flush", signOuts.size(), e);
+            return false;
+        }
+        return true;
+    }
+
+    private void requeue(final List<UserAuthEntity> signIns) {
+        for (UserAuthEntity signIn : signIns) {
+            //a session discarded meanwhile is not queued again
+            if (flushingSignIns.remove(signIn.getAccess_token()) != null) {
+                pendingSignIns.putIfAbsent(signIn.getAccess_token(), signIn);
+            }
+        }
+    }
+
+    /**
+     * method used for getting the rows to be inserted for the queued sign ins.
+     * Every attempt inserts new rows, as the id given to a row by a failed attempt is not reset by the rollback,
+     * and the queued sessions, which are served to the requests meanwhile, are never modified.
+     * A session signed out before it was written is inserted with its logout time.
+     */
+    private static List<UserAuthEntity> toRows(final List<UserAuthEntity> signIns, final Map<TokenDigest, ZonedDateTime> signOuts) {
+        final List<UserAuthEntity> rows = new ArrayList<>(signIns.size());
+        for (UserAuthEntity signIn : signIns) {
+            final UserAuthEntity row = new UserAuthEntity();
+            row.setUuid(signIn.getUuid());
+            row.setUser_id(signIn.getUser_id());
+            row.setAccess_token(signIn.getAccess_token());
+            row.setLogin_at(signIn.getLogin_at());
+            row.setExpires_at(signIn.getExpires_at());
+            final ZonedDateTime logoutAt = signOuts.get(TokenDigest.wrap(signIn.getAccess_token_digest()));
+            row.setLogout_at(signIn.getLogout_at() != null ? signIn.getLogout_at() : logoutAt);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * method used for writing whatever is left in the queue when the server stops.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flushIfFull() {
+        //the caller waits for the flush when the queue is full, so that the queue can not grow without bounds
+        if (size() >= maxPending) {
+            flush();
+        }
+    }
+}
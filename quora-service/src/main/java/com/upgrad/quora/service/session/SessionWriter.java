@@ -0,0 +1,84 @@
+package com.upgrad.quora.service.session;
+
+import com.upgrad.quora.service.common.TokenDigest;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.UserAuthEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes one batch of the write-behind queue to USER_AUTH in its own transaction.
+ * The new sessions are inserted in JDBC batches, as the ids come from the pooled user_auth_id_seq sequence,
+ * and the sign outs are written as updates of the logout_at column only.
+ * The expired sessions are removed by the SessionReaper through this class as well, one batch or partition per transaction,
+ * together with the user revocations which no longer apply to any valid token.
+ */
+@Component
+public class SessionWriter {
+
+    @Autowired
+    private UserDao userDao;
+
+    /**
+     * method used for writing a batch of sign ins and sign outs.
+     *
+     * @param signIns  new sessions, a session signed out before the batch carries its logout time
+     * @param signOuts logout time of every signed out access token, by digest of the token
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void write(final List<UserAuthEntity> signIns, final Map<TokenDigest, ZonedDateTime> signOuts) {
+        for (UserAuthEntity signIn : signIns) {
+            userDao.createAuthToken(signIn);
+        }
+        //the bulk updates flush the inserts first, so that the sign outs of the new sessions find their rows
+        for (Map.Entry<TokenDigest, ZonedDateTime> signOut : signOuts.entrySet()) {
+            userDao.signOut(signOut.getKey(), signOut.getValue());
+        }
+    }
+
+    /**
+     * method used for removing one batch of expired sessions.
+     *
+     * @param expiredBefore sessions which expired before this time are removed
+     * @param batchSize     most sessions removed
+     * @param archive       true to move the sessions to USER_AUTH_ARCHIVE instead of deleting them
+     * @return number of sessions removed
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int removeExpiredSessions(final ZonedDateTime expiredBefore, final int batchSize, final boolean archive) {
+        return userDao.removeExpiredSessions(expiredBefore, batchSize, archive);
+    }
+
+    /**
+     * method used for deleting the user revocations made before a given time.
+     *
+     * @param revokedBefore revocations made before this time are deleted
+     * @return number of revocations deleted
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int removeUserRevocations(final ZonedDateTime revokedBefore) {
+        return userDao.removeUserRevocations(revokedBefore);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<String> getSessionPartitions() {
+        return userDao.getSessionPartitions();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createSessionPartition(final String partition, final LocalDate from, final LocalDate to) {
+        userDao.createSessionPartition(partition, from, to);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void removeSessionPartition(final String partition, final boolean archive) {
+        userDao.removeSessionPartition(partition, archive);
+    }
+}